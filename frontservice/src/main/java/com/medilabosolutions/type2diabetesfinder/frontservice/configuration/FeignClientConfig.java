@@ -7,8 +7,11 @@ import org.springframework.context.annotation.Configuration;
     @Configuration
     public class FeignClientConfig {
 
+        /**
+         * The account of frontService at the gateway, whose rate limiter exempts it
+         */
         @Bean
         public BasicAuthRequestInterceptor basicAuthRequestInterceptor() {
-            return new BasicAuthRequestInterceptor("user", "user");
+            return new BasicAuthRequestInterceptor("frontService", "frontService");
         }
     }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Apache HttpClient 5 transport of the PatientProxy.
+ * <p>
+ * The pool is sized by spring.cloud.openfeign.httpclient.* and reports its leased, available and pending connections
+ * plus the lease wait time to Micrometer. Gzip responses are decoded by the client itself.
+ * The classic HttpClient 5 speaks HTTP/1.1 only : connections are kept alive and reused instead.
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    private static final String POOL_NAME = "patientProxy";
+
+    @Bean
+    public LeaseTimedConnectionManager hc5ConnectionManager(FeignHttpClientProperties httpClientProperties, MeterRegistry meterRegistry) {
+        FeignHttpClientProperties.Hc5Properties hc5Properties = httpClientProperties.getHc5();
+        LeaseTimedConnectionManager connectionManager = new LeaseTimedConnectionManager(
+                PoolConcurrencyPolicy.valueOf(hc5Properties.getPoolConcurrencyPolicy().name()),
+                PoolReusePolicy.valueOf(hc5Properties.getPoolReusePolicy().name()),
+                TimeValue.of(httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit()),
+                meterRegistry, POOL_NAME);
+        connectionManager.setMaxTotal(httpClientProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.of(hc5Properties.getSocketTimeout(), hc5Properties.getSocketTimeoutUnit()))
+                .build());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(httpClientProperties.getConnectionTimeout()))
+                .setTimeToLive(TimeValue.of(httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit()))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean
+    public MeterBinder hc5ConnectionPoolMetrics(LeaseTimedConnectionManager hc5ConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(hc5ConnectionManager, POOL_NAME);
+    }
+
+    /**
+     * Keep-alive : pooled connections idle for longer than idleTimeout are closed before the server drops them.
+     */
+    @Bean
+    public HttpClient5FeignConfiguration.HttpClientBuilderCustomizer idleConnectionEviction(FeignTransportProperties feignTransportProperties) {
+        return builder -> builder.evictIdleConnections(TimeValue.of(feignTransportProperties.getIdleTimeout()));
+    }
+
+    @Bean
+    public PerMethodTimeoutCapability perMethodTimeoutCapability(FeignTransportProperties feignTransportProperties) {
+        return new PerMethodTimeoutCapability(feignTransportProperties);
+    }
+}
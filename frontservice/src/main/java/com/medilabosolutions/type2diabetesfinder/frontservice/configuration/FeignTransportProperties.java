@@ -0,0 +1,38 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the Apache HttpClient 5 transport of the PatientProxy, on top of spring.cloud.openfeign.httpclient.* for the pool.
+ * <p>
+ * idleTimeout closes the pooled connections unused for longer,
+ * methods gives connect and read timeouts per PatientProxy method name, a missing timeout keeps the client default.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.frontservice.feign")
+@Configuration
+@Getter
+@Setter
+public class FeignTransportProperties {
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    private Map<String, MethodTimeouts> methods = new HashMap<>(Map.of(
+            "getNotesByPatientId", new MethodTimeouts(null, Duration.ofSeconds(2)),
+            "getNoteTimeline", new MethodTimeouts(null, Duration.ofSeconds(2))));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MethodTimeouts {
+        private Duration connectTimeout;
+        private Duration readTimeout;
+    }
+}
@@ -0,0 +1,12 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Balances the PatientProxy calls across the gateway instances with the PeakEwmaLoadBalancer instead of round robin.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerClientConfiguration.class)
+public class LoadBalancerConfig {
+}
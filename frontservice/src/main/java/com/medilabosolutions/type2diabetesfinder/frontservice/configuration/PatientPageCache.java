@@ -0,0 +1,79 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the patient pages received from patientService, keyed by page index.
+ * Entries are kept up to maxStale so that an expired page can still be revalidated with its ETag.
+ */
+@Component
+public class PatientPageCache {
+
+    private final Cache<Integer, CachedPage> pages;
+    private final long ttlNanos;
+
+    public PatientPageCache(PatientPageCacheProperties patientPageCacheProperties) {
+        pages = Caffeine.newBuilder()
+                .maximumSize(patientPageCacheProperties.getMaxPages())
+                .expireAfterWrite(patientPageCacheProperties.getMaxStale())
+                .build();
+        ttlNanos = patientPageCacheProperties.getTtl().toNanos();
+    }
+
+    /**
+     * @param index the page index
+     * @return the cached page, fresh or not, or null if absent
+     */
+    public CachedPage get(int index) {
+        return pages.getIfPresent(index);
+    }
+
+    /**
+     * Caches a page received from patientService.
+     *
+     * @param index the page index
+     * @param page  the page
+     * @param eTag  the ETag of the response, null if the backend sent none
+     */
+    public void put(int index, Page<Patient> page, String eTag) {
+        pages.put(index, new CachedPage(page, eTag, System.nanoTime()));
+    }
+
+    /**
+     * Marks a cached page as fresh again after patientService answered 304 Not Modified.
+     *
+     * @param index  the page index
+     * @param cached the revalidated page
+     */
+    public void revalidated(int index, CachedPage cached) {
+        pages.put(index, new CachedPage(cached.getPage(), cached.getETag(), System.nanoTime()));
+    }
+
+    /**
+     * Drops all pages : a created, updated or deleted patient can shift every following page.
+     */
+    public void invalidateAll() {
+        pages.invalidateAll();
+    }
+
+    /**
+     * A page with the ETag and the time it was received or last revalidated.
+     */
+    @Getter
+    @AllArgsConstructor
+    public class CachedPage {
+        private final Page<Patient> page;
+        private final String eTag;
+        private final long fetchedAt;
+
+        public boolean isFresh() {
+            return System.nanoTime() - fetchedAt < ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the front cache of patient pages.
+ * <p>
+ * A page younger than ttl is served without calling patientService.
+ * An older page is revalidated with its ETag, and is evicted after maxStale.
+ * At most maxPages pages are kept.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.frontservice.patientpage")
+@Configuration
+@Getter
+@Setter
+public class PatientPageCacheProperties {
+    private int maxPages = 100;
+    private Duration ttl = Duration.ofSeconds(30);
+    private Duration maxStale = Duration.ofMinutes(10);
+}
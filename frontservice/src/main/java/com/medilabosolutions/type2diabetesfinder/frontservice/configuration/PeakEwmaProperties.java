@@ -0,0 +1,25 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the latency aware load balancing across the instances of a service.
+ * <p>
+ * The latency of an instance jumps to a slower response at once, and decays towards faster ones over decayTime.
+ * An instance without response yet is assumed to answer in initialLatency,
+ * and a failed request counts as at least failureLatency.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.frontservice.peakewma")
+@Configuration
+@Getter
+@Setter
+public class PeakEwmaProperties {
+    private Duration decayTime = Duration.ofSeconds(10);
+    private Duration initialLatency = Duration.ofMillis(100);
+    private Duration failureLatency = Duration.ofSeconds(1);
+}
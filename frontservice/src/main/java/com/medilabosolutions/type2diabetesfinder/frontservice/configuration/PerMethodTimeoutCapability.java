@@ -0,0 +1,39 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import lombok.AllArgsConstructor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the client timeouts of a request by the ones configured for its PatientProxy method.
+ */
+@AllArgsConstructor
+public class PerMethodTimeoutCapability implements Capability {
+
+    private final FeignTransportProperties feignTransportProperties;
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> client.execute(request, optionsFor(request, options));
+    }
+
+    Request.Options optionsFor(Request request, Request.Options options) {
+        RequestTemplate requestTemplate = request.requestTemplate();
+        if (requestTemplate == null || requestTemplate.methodMetadata() == null) {
+            return options;
+        }
+        FeignTransportProperties.MethodTimeouts methodTimeouts = feignTransportProperties.getMethods()
+                .get(requestTemplate.methodMetadata().method().getName());
+        if (methodTimeouts == null) {
+            return options;
+        }
+        Duration connectTimeout = methodTimeouts.getConnectTimeout() != null ? methodTimeouts.getConnectTimeout() : Duration.ofMillis(options.connectTimeoutMillis());
+        Duration readTimeout = methodTimeouts.getReadTimeout() != null ? methodTimeouts.getReadTimeout() : Duration.ofMillis(options.readTimeoutMillis());
+        return new Request.Options(connectTimeout.toMillis(), TimeUnit.MILLISECONDS, readTimeout.toMillis(), TimeUnit.MILLISECONDS, options.isFollowRedirects());
+    }
+}
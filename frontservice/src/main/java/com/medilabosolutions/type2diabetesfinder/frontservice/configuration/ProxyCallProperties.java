@@ -0,0 +1,22 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the calls made through the PatientProxy.
+ * <p>
+ * notesPageSize is the number of notes added by each "load more" on the patient form,
+ * the first notes being the ones sent with the patient detail by the gateway (its aggregation.notes-limit).
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.frontservice.proxy")
+@Configuration
+@RefreshScope
+@Getter
+@Setter
+public class ProxyCallProperties {
+    private int notesPageSize = 10;
+}
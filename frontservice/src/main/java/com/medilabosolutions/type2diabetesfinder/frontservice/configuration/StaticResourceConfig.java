@@ -0,0 +1,79 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.CssLinkResourceTransformer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceTransformerChain;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+/**
+ * Versioned resource chain of the static resources.
+ * <p>
+ * Links written with @{...} in the templates are rewritten by the ResourceUrlEncodingFilter to carry the content hash
+ * (css/home.css becomes css/home-{md5}.css), so a resource is served as immutable and a new version gets a new URL.
+ * The gzip and brotli variants precompressed at build time are served by the EncodedResourceResolver
+ * to browsers accepting them.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private final StaticResourceProperties staticResourceProperties;
+
+    /**
+     * The templates link the resources under the gateway route /frontservice, which the gateway strips.
+     * Both paths are mapped : /css/** serves the requests, /frontservice/css/** lets the links be versioned.
+     *
+     * @param registry the resource handler registry
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        addVersionedResourceHandler(registry, "css");
+        addVersionedResourceHandler(registry, "js");
+    }
+
+    private void addVersionedResourceHandler(ResourceHandlerRegistry registry, String directory) {
+        registry.addResourceHandler("/" + directory + "/**", "/frontservice/" + directory + "/**")
+                .addResourceLocations("classpath:/static/" + directory + "/")
+                .setCacheControl(CacheControl.maxAge(staticResourceProperties.getCacheMaxAge()).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"))
+                .addTransformer(new RelativeCssLinkResourceTransformer());
+    }
+
+    /**
+     * Rewrites the links of a css to other resources (@import, url()) with their versioned URL.
+     * The rewritten links are kept relative to the css : an absolute one would miss the gateway route.
+     */
+    static class RelativeCssLinkResourceTransformer extends CssLinkResourceTransformer {
+
+        @Override
+        protected String resolveUrlPath(String resourcePath, HttpServletRequest request, Resource resource, ResourceTransformerChain chain) {
+            String urlPath = super.resolveUrlPath(resourcePath, request, resource, chain);
+            String cssDirectory = toAbsolutePath("", request);
+            if (urlPath != null && urlPath.startsWith(cssDirectory)) {
+                return urlPath.substring(cssDirectory.length());
+            }
+            return urlPath;
+        }
+    }
+
+    /**
+     * Rewrites the links to the static resources with their versioned URL
+     *
+     * @return the filter
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
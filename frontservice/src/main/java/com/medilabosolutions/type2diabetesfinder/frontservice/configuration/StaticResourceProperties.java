@@ -0,0 +1,21 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the static resources (css, js) served by frontService.
+ * <p>
+ * Their URLs carry a hash of their content, so they are cached by browsers as immutable for cacheMaxAge.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.frontservice.static")
+@Configuration
+@Getter
+@Setter
+public class StaticResourceProperties {
+    private Duration cacheMaxAge = Duration.ofDays(365);
+}
@@ -1,6 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.controller;
 
 import com.medilabosolutions.type2diabetesfinder.frontservice.service.RequestService;
+import feign.FeignException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -45,6 +46,25 @@ public class ControllerExceptionHandler {
         return "error";
     }
 
+    /**
+     * Handle the 429 and 503 answered by the gateway when its rate or concurrency limit is reached : the services are overloaded
+     *
+     * @param e       the FeignException
+     * @param request web request to log uri
+     * @param model   part of Spring MVC, to contain data for the view (Thymeleaf)
+     * @return the string "error" the view name for the view resolver
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler({FeignException.TooManyRequests.class, FeignException.ServiceUnavailable.class})
+    public String overloadedException(FeignException e, WebRequest request, Model model) {
+        log.warn("{} : {} : {}",
+                requestService.requestToString(request),
+                ((ServletWebRequest) request).getHttpMethod(),
+                e.getMessage());
+        model.addAttribute("errorMessage", "Service Unavailable");
+        return "error";
+    }
+
     /**
      * Handle unexpected Exception : the exception message is logged and the message returned is "Internal Server Error"
      *
@@ -1,6 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.controller;
 
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
 import com.medilabosolutions.type2diabetesfinder.frontservice.service.PatientFrontService;
 import com.medilabosolutions.type2diabetesfinder.frontservice.service.RequestService;
@@ -40,18 +41,25 @@ public class PatientFrontController {
     @GetMapping("/front/home")
     public String home(@RequestParam(name = "pageNumber") Optional<String> pageNumberOpt, Model model, WebRequest request) throws NumberFormatException { //Principal user
         //with Principal user get user admin ?
-        int index = Integer.parseInt(pageNumberOpt.orElseGet(() -> "0"));
-        Page<Patient> patientPage = patientFrontService.getPatients(index);
-        log.info("{} : patient page number : {} of {}",
-                requestService.requestToString(request),
-                patientPage.getNumber() + 1,
-                patientPage.getTotalPages());
-        model.addAttribute("patients", patientPage);
-        int lastPage = (int) patientPage.getTotalPages() - 1;
-        model.addAttribute("pageInterval", pageInterval(index, lastPage));
+        addPatientPage(pageNumberOpt, model, request);
         return "home";
     }
 
+    /**
+     * Patient table and pager of a page, without the layout : the fragment swapped in place by home.js.
+     *
+     * @param pageNumberOpt the page index
+     * @param model         the model of the fragment
+     * @param request       the web request
+     * @return the patient-page fragment of home
+     * @throws NumberFormatException if pageNumber is not a number
+     */
+    @GetMapping("/front/home/rows")
+    public String homeRows(@RequestParam(name = "pageNumber") Optional<String> pageNumberOpt, Model model, WebRequest request) throws NumberFormatException {
+        addPatientPage(pageNumberOpt, model, request);
+        return "home :: patient-page";
+    }
+
     @GetMapping("/front/createpatient")
     public String createPatient(Patient patient) {
         return "formnewpatient";
@@ -66,6 +74,24 @@ public class PatientFrontController {
         return "formupdatepatient";
     }
 
+    /**
+     * Next notes of the patient form, rendered as a fragment to append below the notes already shown.
+     *
+     * @param id     the patient id
+     * @param cursor the cursor of the last note shown
+     * @param model  the model of the fragment
+     * @return the notes-page fragment of formupdatepatient
+     */
+    @GetMapping("/front/updatepatient/{id}/notes")
+    public String moreNotes(@PathVariable("id") final Integer id, @RequestParam(name = "cursor") String cursor, Model model, WebRequest request) {
+        PageEnvelope<Note> notes = patientFrontService.getMoreNotes(id, cursor);
+        log.info("{} : {} : {} more notes of patient {} gotten", requestService.requestToString(request), ((ServletWebRequest) request).getHttpMethod(), notes.getContent().size(), id);
+        model.addAttribute("patientId", id);
+        model.addAttribute("notes", notes.getContent());
+        model.addAttribute("notesCursor", notes.getCursor());
+        return "formupdatepatient :: notes-page";
+    }
+
     @GetMapping("/front/deletepatient/{id}")
     public String deletePatient(@PathVariable("id") final int id, WebRequest request) {
         patientFrontService.deletePatient(id);
@@ -112,6 +138,25 @@ public class PatientFrontController {
     }
 
 
+    /**
+     * Adds the requested page of patients and its page interval to the model
+     *
+     * @param pageNumberOpt the page index
+     * @param model
+     * @param request
+     */
+    private void addPatientPage(Optional<String> pageNumberOpt, Model model, WebRequest request) throws NumberFormatException {
+        int index = Integer.parseInt(pageNumberOpt.orElseGet(() -> "0"));
+        Page<Patient> patientPage = patientFrontService.getPatients(index);
+        log.info("{} : patient page number : {} of {}",
+                requestService.requestToString(request),
+                patientPage.getNumber() + 1,
+                patientPage.getTotalPages());
+        model.addAttribute("patients", patientPage);
+        int lastPage = (int) patientPage.getTotalPages() - 1;
+        model.addAttribute("pageInterval", pageInterval(index, lastPage));
+    }
+
     /**
      * Calculation of the parameters for the creation of the page interval
      *
@@ -0,0 +1,62 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+/**
+ * Compact wire format of a page sent by patientService : content, number, size, totalElements, hasNext and cursor.
+ * <p>
+ * totalElements is missing for a page read by cursor, cursor is missing on the last page.
+ *
+ * @param <T> the type of the elements
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PageEnvelope<T> {
+    private List<T> content;
+    private int number;
+    private int size;
+    private Long totalElements;
+    private boolean hasNext;
+    private String cursor;
+
+    /**
+     * @param page a page
+     * @return the envelope of the page, without cursor
+     */
+    public static <T> PageEnvelope<T> of(Page<T> page) {
+        return PageEnvelope.<T>builder()
+                .content(page.getContent())
+                .number(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .hasNext(page.hasNext())
+                .build();
+    }
+
+    /**
+     * @return the page for the views, its total is estimated from hasNext if it was not sent
+     */
+    public Page<T> toPage() {
+        PageRequest pageRequest = PageRequest.of(number, Math.max(size, 1));
+        long total = totalElements != null
+                ? totalElements
+                : pageRequest.getOffset() + content.size() + (hasNext ? 1 : 0);
+        return new PageImpl<>(content, pageRequest, total);
+    }
+}
@@ -1,6 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -40,4 +41,10 @@ public class Patient {
     private String phoneNumber;
 
     private List<Note> medicalNotes;
+
+    /**
+     * Cursor of the notes older than medicalNotes, null if there are none
+     */
+    @JsonIgnore
+    private String notesCursor;
 }
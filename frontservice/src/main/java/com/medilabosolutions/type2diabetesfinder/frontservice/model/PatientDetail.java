@@ -0,0 +1,27 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Patient detail composed by the gateway : the patient with its latest notes, in one round trip.
+ * <p>
+ * notes is null, and "notes" is in missing, when noteService did not answer in time.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PatientDetail {
+    private Patient patient;
+    private PageEnvelope<Note> notes;
+    private List<String> missing;
+}
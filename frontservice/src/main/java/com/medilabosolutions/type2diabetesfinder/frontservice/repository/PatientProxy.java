@@ -2,15 +2,18 @@ package com.medilabosolutions.type2diabetesfinder.frontservice.repository;
 
 import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.FeignClientConfig;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PatientDetail;
 import feign.Body;
+import feign.FeignException;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.apache.coyote.BadRequestException;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -22,7 +25,7 @@ import java.util.List;
 import java.util.Optional;
 
 //@FeignClient(name = "patientService")// , url = "localhost:9090")
-@FeignClient(name = "gatewayService", configuration = FeignClientConfig.class)
+@FeignClient(name = "gatewayService", configuration = FeignClientConfig.class, fallbackFactory = PatientProxyFallbackFactory.class)
 public interface PatientProxy {
 
     //private final UrlApiProperties urlApiProperties;
@@ -30,10 +33,13 @@ public interface PatientProxy {
     /**
      * Get page of patients
      *
-     * @return A ResponseEntity containing PageModel of requested page patients
+     * @param pageNumberOpt the page index
+     * @param ifNoneMatch   ETag of the cached page to revalidate, null to get the page unconditionally
+     * @return A ResponseEntity containing the PageEnvelope of requested page patients
+     * @throws FeignException with status 304 if the page still matches ifNoneMatch
      */
     @GetMapping("/patients")
-    ResponseEntity<Page<Patient>> getPatients(@RequestParam(name = "pageNumber") Optional<String> pageNumberOpt); //throws IllegalArgumentException;
+    ResponseEntity<PageEnvelope<Patient>> getPatients(@RequestParam(name = "pageNumber") Optional<String> pageNumberOpt, @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch); //throws IllegalArgumentException;
 
     /**
      * Get a patient by the id
@@ -45,6 +51,15 @@ public interface PatientProxy {
     //Integer.MAX_VALUE = 2 147 483 647 = 2^31-1
     ResponseEntity<Patient> getPatient(@PathVariable("id") @Min(1) @Max(2147483647) Integer id); //throws MethodArgumentTypeMismatchException, ConstraintViolationException, ResourceNotFoundException;
 
+    /**
+     * Get a patient with its latest notes, composed by the gateway from patientService and noteService
+     *
+     * @param id The id of the patient
+     * @return ResponseBody containing the patient detail, without notes if noteService did not answer in time
+     */
+    @GetMapping("/api/patients/{id}/full")
+    ResponseEntity<PatientDetail> getPatientFull(@PathVariable("id") @Min(1) @Max(2147483647) Integer id);
+
     /**
      * Add a new patient
      *
@@ -83,6 +98,17 @@ public interface PatientProxy {
     @GetMapping("/notes/patient/{patientId}")
     ResponseEntity<List<Note>> getNotesByPatientId(@PathVariable("patientId") @Min(1) @Max(2147483647) Integer patientId) throws MethodArgumentTypeMismatchException, ConstraintViolationException;
 
+    /**
+     * Retrieves a page of the note history of a patient, newest first, by keyset.
+     *
+     * @param patientId the ID of the patient
+     * @param limit     the maximum number of notes
+     * @param cursor    the cursor of the previous page, null for the latest notes
+     * @return ResponseEntity containing the PageEnvelope of notes, with the cursor of the next page if any
+     */
+    @GetMapping("/notes/patient/{patientId}/timeline")
+    ResponseEntity<PageEnvelope<Note>> getNoteTimeline(@PathVariable("patientId") @Min(1) @Max(2147483647) Integer patientId, @RequestParam(name = "limit") int limit, @RequestParam(name = "cursor", required = false) String cursor);
+
     /**
      * Creates a new note for a patient.
      * @param optionalNote
@@ -0,0 +1,95 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.repository;
+
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.PatientPageCache;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PatientDetail;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fallbacks of the PatientProxy circuit breakers.
+ * <p>
+ * A page of patients falls back to the last good cached page when patientService fails or the breaker is open.
+ * Every other call, and any 3xx or 4xx answer, rethrows the cause for the caller to handle as before :
+ * notes missing from a patient detail are rendered as unavailable by PatientFrontServiceImpl.
+ */
+@Component
+@Slf4j
+@AllArgsConstructor
+public class PatientProxyFallbackFactory implements FallbackFactory<PatientProxy> {
+
+    private final PatientPageCache patientPageCache;
+
+    @Override
+    public PatientProxy create(Throwable cause) {
+        return new PatientProxy() {
+            @Override
+            public ResponseEntity<PageEnvelope<Patient>> getPatients(Optional<String> pageNumberOpt, String ifNoneMatch) {
+                PatientPageCache.CachedPage stale = ProxyFailurePredicate.isFailure(cause)
+                        ? patientPageCache.get(pageNumberOpt.map(Integer::parseInt).orElse(0))
+                        : null;
+                if (stale == null) {
+                    throw rethrow(cause);
+                }
+                log.warn("Patient page {} served from cache : {}", pageNumberOpt.orElse("0"), cause.toString());
+                return ResponseEntity.ok().eTag(stale.getETag()).body(PageEnvelope.of(stale.getPage()));
+            }
+
+            @Override
+            public ResponseEntity<Patient> getPatient(Integer id) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public ResponseEntity<PatientDetail> getPatientFull(Integer id) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public ResponseEntity<Patient> createPatient(Optional<Patient> optionalPatient) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public ResponseEntity<Patient> updatePatient(Optional<Patient> optionalPatient) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public HttpStatus deletePatientById(Integer id) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public ResponseEntity<List<Note>> getNotesByPatientId(Integer patientId) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public ResponseEntity<PageEnvelope<Note>> getNoteTimeline(Integer patientId, int limit, String cursor) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public ResponseEntity<Note> createNote(Optional<Note> optionalNote) {
+                throw rethrow(cause);
+            }
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,27 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.repository;
+
+import feign.FeignException;
+
+import java.util.function.Predicate;
+
+/**
+ * Tells the PatientProxy circuit breakers which exceptions are backend failures.
+ * <p>
+ * A 3xx or 4xx answer (304 revalidation, 404 unknown patient, 400 invalid form) proves the backend is up,
+ * so it is not recorded : only 5xx, I/O errors, timeouts and other exceptions open a breaker.
+ */
+public class ProxyFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return isFailure(throwable);
+    }
+
+    public static boolean isFailure(Throwable throwable) {
+        if (throwable instanceof FeignException feignException) {
+            int status = feignException.status();
+            return status < 300 || status >= 500;
+        }
+        return true;
+    }
+}
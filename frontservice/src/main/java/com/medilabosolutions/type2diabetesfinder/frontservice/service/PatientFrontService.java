@@ -1,6 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.service;
 
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
@@ -30,6 +31,15 @@ public interface PatientFrontService {
      */
     Patient getPatient(Integer id) throws HttpClientErrorException.BadRequest;
 
+    /**
+     * Retrieves the next notes of a patient, older than the last one shown.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param cursor    the cursor of the last note shown
+     * @return the next notes, with the cursor of the following ones if any
+     */
+    PageEnvelope<Note> getMoreNotes(Integer patientId, String cursor);
+
     /**
      * Creates a new patient in the system.
      *
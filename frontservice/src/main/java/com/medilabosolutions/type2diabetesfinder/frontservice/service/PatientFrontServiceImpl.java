@@ -1,13 +1,19 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.service;
 
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.PatientPageCache;
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.ProxyCallProperties;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PatientDetail;
 import com.medilabosolutions.type2diabetesfinder.frontservice.repository.PatientProxy;
+import feign.FeignException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.client.HttpClientErrorException;
@@ -25,19 +31,42 @@ import java.util.Optional;
 public class PatientFrontServiceImpl implements PatientFrontService {
 
     private final PatientProxy patientProxy;
+    private final ProxyCallProperties proxyCallProperties;
+    private final PatientPageCache patientPageCache;
 
     /**
      * Retrieves a page of patients based on the provided pagination information.
+     * A fresh cached page is returned without calling patientService, an expired one is revalidated with its ETag.
      *
      * @return A page of patients based on the given pagination information.
      */
     @Override
     public Page<Patient> getPatients(int index) {
-        return patientProxy.getPatients(Optional.of(String.valueOf(index))).getBody();
+        PatientPageCache.CachedPage cached = patientPageCache.get(index);
+        if (cached != null && cached.isFresh()) {
+            return cached.getPage();
+        }
+        ResponseEntity<PageEnvelope<Patient>> response;
+        try {
+            response = patientProxy.getPatients(Optional.of(String.valueOf(index)), cached == null ? null : cached.getETag());
+        } catch (FeignException e) {
+            if (cached != null && e.status() == HttpStatus.NOT_MODIFIED.value()) {
+                patientPageCache.revalidated(index, cached);
+                return cached.getPage();
+            }
+            throw e;
+        }
+        Page<Patient> page = response.getBody().toPage();
+        patientPageCache.put(index, page, response.getHeaders().getETag());
+        return page;
     }
 
     /**
-     * Retrieves a patient by their unique identifier.
+     * Retrieves a patient by their unique identifier, with its latest medical notes, in a single call to the gateway.
+     * The gateway fetches the patient and its notes concurrently, each bounded by its own timeout,
+     * and sends the patient without its notes if noteService does not answer in time :
+     * the patient is then returned with null medical notes and the page is rendered without them.
+     * The cursor of the notes older than the first page is kept in notesCursor.
      *
      * @param id the unique identifier of the patient to be retrieved
      * @return the patient corresponding to the given identifier
@@ -45,11 +74,30 @@ public class PatientFrontServiceImpl implements PatientFrontService {
      */
     @Override
     public Patient getPatient(Integer id) throws HttpClientErrorException.BadRequest {
-        Patient patient = patientProxy.getPatient(id).getBody();
-        patient.setMedicalNotes(patientProxy.getNotesByPatientId(id).getBody());
+        PatientDetail patientDetail = patientProxy.getPatientFull(id).getBody();
+        Patient patient = patientDetail.getPatient();
+        PageEnvelope<Note> notes = patientDetail.getNotes();
+        if (notes != null) {
+            patient.setMedicalNotes(notes.getContent());
+            patient.setNotesCursor(notes.getCursor());
+        } else {
+            log.warn("Notes of patient {} unavailable : missing {}", id, patientDetail.getMissing());
+        }
         return patient;
     }
 
+    /**
+     * Retrieves the notes of a patient older than a cursor, newest first.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param cursor    the cursor of the last note shown
+     * @return at most notesPageSize notes, with the cursor of the next ones if any
+     */
+    @Override
+    public PageEnvelope<Note> getMoreNotes(Integer patientId, String cursor) {
+        return patientProxy.getNoteTimeline(patientId, proxyCallProperties.getNotesPageSize(), cursor).getBody();
+    }
+
     /**
      * Add a new patient entity in the repository.
      *
@@ -59,7 +107,9 @@ public class PatientFrontServiceImpl implements PatientFrontService {
      */
     @Override
     public Patient createPatient(Patient patient) throws HttpClientErrorException.BadRequest {
-        return patientProxy.createPatient(Optional.ofNullable(patient)).getBody();
+        Patient createdPatient = patientProxy.createPatient(Optional.ofNullable(patient)).getBody();
+        patientPageCache.invalidateAll();
+        return createdPatient;
     }
 
     /**
@@ -72,7 +122,9 @@ public class PatientFrontServiceImpl implements PatientFrontService {
 
     @Override
     public Patient updatePatient(Patient patient) throws HttpClientErrorException.BadRequest {
-        return patientProxy.updatePatient(Optional.ofNullable(patient)).getBody();
+        Patient updatedPatient = patientProxy.updatePatient(Optional.ofNullable(patient)).getBody();
+        patientPageCache.invalidateAll();
+        return updatedPatient;
     }
 
     /**
@@ -83,7 +135,9 @@ public class PatientFrontServiceImpl implements PatientFrontService {
     @Override
     public HttpStatus deletePatient(Integer id) {
         // If the entity is not found in the persistence store it is silently ignored.
-        return patientProxy.deletePatientById(id);
+        HttpStatus status = patientProxy.deletePatientById(id);
+        patientPageCache.invalidateAll();
+        return status;
     }
 
     /**
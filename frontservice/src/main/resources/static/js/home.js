@@ -0,0 +1,65 @@
+// Paging without reloading the layout : a pager link fetches the patient-page fragment of its page
+// and swaps it in place. The next page is prefetched once the current one is shown.
+(function () {
+    const prefetched = new Map();
+
+    function fetchRows(url) {
+        const rows = prefetched.get(url);
+        if (rows) {
+            prefetched.delete(url);
+            return rows;
+        }
+        return fetch(url, {headers: {'Accept': 'text/html'}}).then(function (response) {
+            if (!response.ok) {
+                throw new Error(response.status);
+            }
+            return response.text();
+        });
+    }
+
+    function prefetchNext() {
+        const page = document.getElementById('patient-page');
+        const next = page && page.dataset.nextRows;
+        if (next && !prefetched.has(next)) {
+            const rows = fetchRows(next);
+            // a failed prefetch is forgotten, the click will fetch again
+            rows.catch(function () {
+                prefetched.delete(next);
+            });
+            prefetched.set(next, rows);
+        }
+    }
+
+    function show(rowsUrl, pageUrl, push) {
+        return fetchRows(rowsUrl).then(function (html) {
+            document.getElementById('patient-page').outerHTML = html;
+            if (push) {
+                history.pushState({rows: rowsUrl}, '', pageUrl);
+            }
+            prefetchNext();
+        });
+    }
+
+    document.addEventListener('click', function (event) {
+        const link = event.target.closest('#patient-page a[data-rows]');
+        if (!link || event.ctrlKey || event.metaKey || event.shiftKey) {
+            return;
+        }
+        event.preventDefault();
+        show(link.dataset.rows, link.href, true).catch(function () {
+            window.location.href = link.href;
+        });
+    });
+
+    window.addEventListener('popstate', function (event) {
+        if (event.state && event.state.rows) {
+            show(event.state.rows, null, false).catch(function () {
+                window.location.reload();
+            });
+        } else {
+            window.location.reload();
+        }
+    });
+
+    document.addEventListener('DOMContentLoaded', prefetchNext);
+})();
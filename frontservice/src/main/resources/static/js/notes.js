@@ -0,0 +1,27 @@
+// "Load more notes" : the next notes are fetched as an HTML fragment which replaces the link,
+// the fragment ending with the link to the following notes if any.
+document.addEventListener('click', function (event) {
+    const link = event.target.closest('a.load-more-notes');
+    if (!link) {
+        return;
+    }
+    event.preventDefault();
+    if (link.dataset.loading) {
+        return;
+    }
+    link.dataset.loading = 'true';
+    fetch(link.href, {headers: {'Accept': 'text/html'}})
+        .then(function (response) {
+            if (!response.ok) {
+                throw new Error(response.status);
+            }
+            return response.text();
+        })
+        .then(function (html) {
+            link.insertAdjacentHTML('beforebegin', html);
+            link.remove();
+        })
+        .catch(function () {
+            delete link.dataset.loading;
+        });
+});
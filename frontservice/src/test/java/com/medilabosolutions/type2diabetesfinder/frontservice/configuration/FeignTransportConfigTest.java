@@ -0,0 +1,128 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import feign.Feign;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FeignTransportConfigTest {
+
+    interface TestProxy {
+        @RequestLine("GET /notes")
+        String getNotesByPatientId();
+
+        @RequestLine("GET /patients")
+        String getPatients();
+    }
+
+    @Nested
+    @Tag("perMethodTimeoutCapabilityTests")
+    @DisplayName("Tests for the per method timeouts")
+    class PerMethodTimeoutCapabilityTest {
+
+        AtomicReference<Request.Options> usedOptions;
+        TestProxy testProxy;
+
+        @BeforeEach
+        public void setUpPerTest() {
+            FeignTransportProperties feignTransportProperties = new FeignTransportProperties();
+            feignTransportProperties.setMethods(new HashMap<>());
+            feignTransportProperties.getMethods().put("getNotesByPatientId",
+                    new FeignTransportProperties.MethodTimeouts(Duration.ofMillis(500), Duration.ofSeconds(2)));
+            usedOptions = new AtomicReference<>();
+            testProxy = Feign.builder()
+                    .options(new Request.Options(10, TimeUnit.SECONDS, 60, TimeUnit.SECONDS, true))
+                    .client((request, options) -> {
+                        usedOptions.set(options);
+                        return Response.builder().status(200).request(request).body("ok".getBytes()).build();
+                    })
+                    .addCapability(new PerMethodTimeoutCapability(feignTransportProperties))
+                    .target(TestProxy.class, "http://localhost");
+        }
+
+        @AfterEach
+        public void undefPerTest() {
+            usedOptions = null;
+            testProxy = null;
+        }
+
+        @Test
+        @Tag("FeignTransportConfigTest")
+        @DisplayName("configured method should use its own timeouts")
+        public void configuredMethodShouldUseItsOwnTimeouts() {
+
+            //GIVEN
+            //WHEN
+            testProxy.getNotesByPatientId();
+
+            //THEN
+            assertThat(usedOptions.get().connectTimeoutMillis()).isEqualTo(500);
+            assertThat(usedOptions.get().readTimeoutMillis()).isEqualTo(2000);
+        }
+
+        @Test
+        @Tag("FeignTransportConfigTest")
+        @DisplayName("other method should keep the client timeouts")
+        public void otherMethodShouldKeepTheClientTimeouts() {
+
+            //GIVEN
+            //WHEN
+            testProxy.getPatients();
+
+            //THEN
+            assertThat(usedOptions.get().connectTimeoutMillis()).isEqualTo(10_000);
+            assertThat(usedOptions.get().readTimeoutMillis()).isEqualTo(60_000);
+        }
+    }
+
+    @Nested
+    @Tag("leaseTimedConnectionManagerTests")
+    @DisplayName("Tests for the lease wait metric")
+    class LeaseTimedConnectionManagerTest {
+
+        @Test
+        @Tag("FeignTransportConfigTest")
+        @DisplayName("lease wait should be recorded when the pool is exhausted")
+        public void leaseWaitShouldBeRecordedWhenThePoolIsExhausted() throws Exception {
+
+            //GIVEN
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            HttpRoute route = new HttpRoute(new HttpHost("localhost", 9102));
+            try (LeaseTimedConnectionManager connectionManager = new LeaseTimedConnectionManager(
+                    PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, TimeValue.ofMinutes(1), meterRegistry, "test")) {
+                connectionManager.setMaxTotal(1);
+                connectionManager.setDefaultMaxPerRoute(1);
+                ConnectionEndpoint endpoint = connectionManager.lease("1", route, Timeout.ofSeconds(1), null).get(Timeout.ofSeconds(1));
+
+                //WHEN
+                assertThrows(TimeoutException.class,
+                        () -> connectionManager.lease("2", route, Timeout.ofMilliseconds(200), null).get(Timeout.ofMilliseconds(200)));
+
+                //THEN
+                Timer leaseWait = meterRegistry.get(LeaseTimedConnectionManager.LEASE_WAIT_METRIC).tag("httpclient", "test").timer();
+                assertThat(leaseWait.count()).isEqualTo(2);
+                assertThat(leaseWait.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+                connectionManager.release(endpoint, null, TimeValue.ZERO_MILLISECONDS);
+            }
+        }
+    }
+}
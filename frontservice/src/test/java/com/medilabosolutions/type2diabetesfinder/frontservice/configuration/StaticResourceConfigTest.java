@@ -0,0 +1,65 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.configuration;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Versioned, precompressed and immutable static resources of the front.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StaticResourceConfigTest {
+
+    @Inject
+    MockMvc mvc;
+
+    @Inject
+    ResourceUrlProvider resourceUrlProvider;
+
+    @Test
+    @Tag("StaticResourceConfigTest")
+    @DisplayName("versioned css should be served gzipped and immutable")
+    public void versionedCssShouldBeServedGzippedAndImmutable() throws Exception {
+
+        //GIVEN
+        String versionedUrl = resourceUrlProvider.getForLookupPath("/frontservice/css/home.css");
+
+        //WHEN
+        //THEN
+        assertThat(versionedUrl).matches("/frontservice/css/home-[0-9a-f]{32}\\.css");
+        mvc.perform(get(versionedUrl.substring("/frontservice".length())).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    @Tag("StaticResourceConfigTest")
+    @DisplayName("css import should be rewritten with the versioned url of the imported css")
+    public void cssImportShouldBeRewrittenWithTheVersionedUrl() throws Exception {
+
+        //GIVEN
+        String versionedUrl = resourceUrlProvider.getForLookupPath("/frontservice/css/formPatient.css");
+        String importedUrl = resourceUrlProvider.getForLookupPath("/frontservice/css/home.css");
+
+        //WHEN
+        String css = mvc.perform(get(versionedUrl.substring("/frontservice".length())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //THEN
+        assertThat(css).contains("@import url(\"" + importedUrl.substring("/frontservice/css/".length()) + "\")");
+    }
+}
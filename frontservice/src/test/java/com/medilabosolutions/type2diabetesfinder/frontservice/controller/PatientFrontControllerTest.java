@@ -1,5 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.controller;
 
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
 import com.medilabosolutions.type2diabetesfinder.frontservice.service.PatientFrontServiceImpl;
 import com.medilabosolutions.type2diabetesfinder.frontservice.service.RequestService;
@@ -15,7 +17,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.ui.Model;
@@ -24,6 +28,7 @@ import org.springframework.web.context.request.ServletWebRequest;
 import java.lang.reflect.Method;
 import java.security.Principal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
@@ -175,6 +180,31 @@ class PatientFrontControllerTest {
                             , tuple(4, "Test", "TestEarlyOnset", "20020628", "F", "4 Valley Dr", "400-555-6666")
                     );
         }
+
+        @Test
+        @Tag("PatientFrontControllerTest")
+        @DisplayName("homeRows Test should return the patient page fragment with the requested page")
+        public void homeRowsTestShouldReturnThePatientPageFragment() {
+
+            //GIVEN
+            List<Patient> givenPatients = List.of(
+                    Patient.builder()
+                            .id(11)
+                            .firstName("Test")
+                            .lastName("TestNone")
+                            .birthDate(LocalDate.of(1966, 12, 31))
+                            .genre("F")
+                            .build());
+            when(patientFrontService.getPatients(2)).thenReturn(new PageImpl<>(givenPatients, PageRequest.of(2, 5), 11));
+
+            //WHEN
+            String page = patientFrontController.homeRows(Optional.of("2"), model, request);
+
+            //THEN
+            assertThat(page).isEqualTo("home :: patient-page");
+            verify(model).addAttribute(eq("patients"), argThat(patients -> ((Page<?>) patients).getNumber() == 2));
+            verify(model).addAttribute("pageInterval", List.of(1, 2, 3));
+        }
     }
 
     @Nested
@@ -270,6 +300,51 @@ class PatientFrontControllerTest {
         }
     }
 
+    @Nested
+    @Tag("moreNotesTest")
+    @DisplayName("Test for moreNotes")
+    class MoreNotesTest {
+
+        @BeforeEach
+        public void setUpForEachTests() {
+            requestMock = new MockHttpServletRequest();
+            requestMock.setServerName("http://localhost:9103");
+            requestMock.setRequestURI("/front/updatepatient/1/notes");
+            request = new ServletWebRequest(requestMock);
+        }
+
+        @AfterEach
+        public void unSetForEachTests() {
+            requestMock = null;
+            request = null;
+        }
+
+        @Test
+        @Tag("PatientFrontControllerTest")
+        @DisplayName("moreNotes Test should return the notes page fragment with the next notes and their cursor")
+        void moreNotesTestShouldReturnTheNotesPageFragment() {
+
+            // GIVEN
+            List<Note> givenNotes = List.of(Note.builder()
+                    .id("2")
+                    .patientId(1)
+                    .dateTime(LocalDateTime.of(2025, 5, 17, 10, 0))
+                    .content("Le patient déclare qu'il fume depuis peu")
+                    .build());
+            when(patientFrontService.getMoreNotes(1, "2025-05-18T21:21_1")).thenReturn(
+                    PageEnvelope.<Note>builder().content(givenNotes).hasNext(true).cursor("2025-05-17T10:00_2").build());
+
+            // WHEN
+            String fragment = patientFrontController.moreNotes(1, "2025-05-18T21:21_1", model, request);
+
+            // THEN
+            assertThat(fragment).isEqualTo("formupdatepatient :: notes-page");
+            verify(model).addAttribute("patientId", 1);
+            verify(model).addAttribute("notes", givenNotes);
+            verify(model).addAttribute("notesCursor", "2025-05-17T10:00_2");
+        }
+    }
+
     @Nested
     @Tag("deletePatientTest")
     @DisplayName("Test for deletePatient")
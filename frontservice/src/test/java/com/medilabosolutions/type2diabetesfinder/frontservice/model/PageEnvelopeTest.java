@@ -0,0 +1,64 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+import org.springframework.data.domain.Page;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PageEnvelopeTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    public void setUpForAllTests() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+    }
+
+    @AfterAll
+    public void undefForAllTests() {
+        objectMapper = null;
+    }
+
+    @SneakyThrows
+    @Test
+    @Tag("PageEnvelopeTest")
+    @DisplayName("toPage should give the page sent by patientService")
+    public void toPageShouldGiveThePageSentByPatientService() {
+
+        //GIVEN
+        String json = "{\"content\":[{\"id\":5,\"firstName\":\"Test\",\"lastName\":\"TestNone\",\"birthDate\":\"1966-12-31\"}],"
+                + "\"number\":1,\"size\":4,\"totalElements\":5,\"hasNext\":false}";
+
+        //WHEN
+        Page<Patient> page = objectMapper.readValue(json, new TypeReference<PageEnvelope<Patient>>() {}).toPage();
+
+        //THEN
+        assertThat(page.getContent()).extracting(Patient::getId).containsExactly(5);
+        assertThat(page.getNumber()).isEqualTo(1);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @SneakyThrows
+    @Test
+    @Tag("PageEnvelopeTest")
+    @DisplayName("toPage without total should still tell there is a next page")
+    public void toPageWithoutTotalShouldStillTellThereIsANextPage() {
+
+        //GIVEN
+        String json = "{\"content\":[{\"id\":5},{\"id\":7}],\"number\":2,\"size\":2,\"hasNext\":true,\"cursor\":\"7\"}";
+
+        //WHEN
+        PageEnvelope<Patient> envelope = objectMapper.readValue(json, new TypeReference<PageEnvelope<Patient>>() {});
+        Page<Patient> page = envelope.toPage();
+
+        //THEN
+        assertThat(envelope.getCursor()).isEqualTo("7");
+        assertThat(page.getNumber()).isEqualTo(2);
+        assertThat(page.hasNext()).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.medilabosolutions.type2diabetesfinder.frontservice.repository;
+
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.PatientPageCache;
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.PatientPageCacheProperties;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PatientProxyFallbackFactoryTest {
+
+    PatientPageCache patientPageCache;
+    PatientProxyFallbackFactory patientProxyFallbackFactory;
+    Page<Patient> givenPage;
+
+    @BeforeEach
+    public void setUpPerTest() {
+        patientPageCache = new PatientPageCache(new PatientPageCacheProperties());
+        patientProxyFallbackFactory = new PatientProxyFallbackFactory(patientPageCache);
+        givenPage = new PageImpl<>(List.of(Patient.builder().id(1).lastName("TestNone").build()), Pageable.unpaged(), 1);
+    }
+
+    @AfterEach
+    public void undefPerTest() {
+        patientPageCache = null;
+        patientProxyFallbackFactory = null;
+        givenPage = null;
+    }
+
+    private static FeignException feignException(int status) {
+        FeignException feignException = mock(FeignException.class);
+        when(feignException.status()).thenReturn(status);
+        return feignException;
+    }
+
+    @Nested
+    @Tag("getPatientsFallbackTests")
+    @DisplayName("Tests for the getPatients fallback")
+    class GetPatientsFallbackTest {
+
+        @Test
+        @Tag("PatientProxyFallbackFactoryTest")
+        @DisplayName("getPatients fallback should serve the cached page when the breaker is open")
+        public void getPatientsFallbackShouldServeTheCachedPageWhenTheBreakerIsOpen() {
+
+            //GIVEN
+            patientPageCache.put(2, givenPage, "\"1\"");
+            CallNotPermittedException open = CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test"));
+
+            //WHEN
+            ResponseEntity<PageEnvelope<Patient>> response = patientProxyFallbackFactory.create(open).getPatients(Optional.of("2"), null);
+
+            //THEN
+            assertThat(response.getBody().getContent()).isEqualTo(givenPage.getContent());
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"1\"");
+        }
+
+        @Test
+        @Tag("PatientProxyFallbackFactoryTest")
+        @DisplayName("getPatients fallback should serve the cached page on a server error")
+        public void getPatientsFallbackShouldServeTheCachedPageOnAServerError() {
+
+            //GIVEN
+            patientPageCache.put(0, givenPage, null);
+
+            //WHEN
+            ResponseEntity<PageEnvelope<Patient>> response = patientProxyFallbackFactory.create(feignException(503)).getPatients(Optional.of("0"), null);
+
+            //THEN
+            assertThat(response.getBody().getContent()).isEqualTo(givenPage.getContent());
+        }
+
+        @Test
+        @Tag("PatientProxyFallbackFactoryTest")
+        @DisplayName("getPatients fallback should rethrow a not modified answer")
+        public void getPatientsFallbackShouldRethrowANotModifiedAnswer() {
+
+            //GIVEN
+            patientPageCache.put(0, givenPage, "\"1\"");
+            FeignException notModified = feignException(304);
+
+            //WHEN
+            PatientProxy fallback = patientProxyFallbackFactory.create(notModified);
+
+            //THEN
+            FeignException thrown = assertThrows(FeignException.class, () -> fallback.getPatients(Optional.of("0"), "\"1\""));
+            assertThat(thrown).isSameAs(notModified);
+        }
+
+        @Test
+        @Tag("PatientProxyFallbackFactoryTest")
+        @DisplayName("getPatients fallback should rethrow the failure without cached page")
+        public void getPatientsFallbackShouldRethrowTheFailureWithoutCachedPage() {
+
+            //GIVEN
+            FeignException serverError = feignException(500);
+
+            //WHEN
+            PatientProxy fallback = patientProxyFallbackFactory.create(serverError);
+
+            //THEN
+            assertThat(assertThrows(FeignException.class, () -> fallback.getPatients(Optional.of("0"), null))).isSameAs(serverError);
+        }
+    }
+
+    @Nested
+    @Tag("getNotesByPatientIdFallbackTests")
+    @DisplayName("Tests for the getNotesByPatientId fallback")
+    class GetNotesByPatientIdFallbackTest {
+
+        @Test
+        @Tag("PatientProxyFallbackFactoryTest")
+        @DisplayName("getNotesByPatientId fallback should rethrow so that notes are rendered as unavailable")
+        public void getNotesByPatientIdFallbackShouldRethrow() {
+
+            //GIVEN
+            FeignException serverError = feignException(503);
+
+            //WHEN
+            PatientProxy fallback = patientProxyFallbackFactory.create(serverError);
+
+            //THEN
+            assertThat(assertThrows(FeignException.class, () -> fallback.getNotesByPatientId(1))).isSameAs(serverError);
+            assertThat(assertThrows(FeignException.class, () -> fallback.getNoteTimeline(1, 10, null))).isSameAs(serverError);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.medilabosolutions.type2diabetesfinder.frontservice.service;
 
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.PatientPageCache;
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.PatientPageCacheProperties;
+import com.medilabosolutions.type2diabetesfinder.frontservice.configuration.ProxyCallProperties;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.frontservice.model.Patient;
+import com.medilabosolutions.type2diabetesfinder.frontservice.model.PatientDetail;
 import com.medilabosolutions.type2diabetesfinder.frontservice.repository.PatientProxy;
+import feign.FeignException;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,7 +20,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +32,11 @@ import static org.assertj.core.api.AssertionsForClassTypes.tuple;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -35,9 +49,12 @@ public class PatientFrontServiceTest {
     @MockitoBean
     PatientProxy patientProxy;
 
+    @Inject
+    PatientPageCache patientPageCache;
+
     @AfterEach
     public void unSetForEachTests() {
-        patientFrontService = null;
+        patientPageCache.invalidateAll();
     }
 
     @Nested
@@ -101,8 +118,8 @@ public class PatientFrontServiceTest {
                             .phoneNumber("400-555-6666")
                             .build()
             );
-            when(patientProxy.getPatients(any(Optional.class)))
-                    .thenReturn(new ResponseEntity<Page<Patient>>(new PageImpl<>(givenPatients, pageRequest, 4), HttpStatus.OK));
+            when(patientProxy.getPatients(any(Optional.class), any()))
+                    .thenReturn(new ResponseEntity<>(PageEnvelope.of(new PageImpl<>(givenPatients, pageRequest, 4)), HttpStatus.OK));
 
             //WHEN
             Page<Patient> pagedPatient = patientFrontService.getPatients(0);
@@ -124,6 +141,68 @@ public class PatientFrontServiceTest {
                             ,tuple(4, "Test", "TestEarlyOnset", "20020628", "F", "4 Valley Dr", "400-555-6666")
                     );
         }
+        @Test
+        @Tag("PatientFrontServiceTest")
+        @DisplayName("getPatients test should serve a fresh page from cache")
+        public void getPatientsTestShouldServeAFreshPageFromCache() {
+
+            //GIVEN
+            Page<Patient> givenPage = new PageImpl<>(List.of(Patient.builder().id(1).lastName("TestNone").build()), pageRequest, 1);
+            when(patientProxy.getPatients(any(Optional.class), any()))
+                    .thenReturn(ResponseEntity.ok().eTag("\"1\"").body(PageEnvelope.of(givenPage)));
+
+            //WHEN
+            Page<Patient> fetchedPage = patientFrontService.getPatients(0);
+            Page<Patient> pagedPatient = patientFrontService.getPatients(0);
+
+            //THEN
+            assertThat(pagedPatient).isSameAs(fetchedPage);
+            verify(patientProxy, times(1)).getPatients(any(Optional.class), any());
+        }
+
+        @Test
+        @Tag("PatientFrontServiceTest")
+        @DisplayName("getPatients test should revalidate an expired page with its ETag")
+        public void getPatientsTestShouldRevalidateAnExpiredPageWithItsETag() {
+
+            //GIVEN
+            PatientPageCacheProperties expireAtOnce = new PatientPageCacheProperties();
+            expireAtOnce.setTtl(Duration.ZERO);
+            PatientPageCache expiringCache = new PatientPageCache(expireAtOnce);
+            PatientFrontServiceImpl expiringFrontService = new PatientFrontServiceImpl(patientProxy, new ProxyCallProperties(), expiringCache);
+            Page<Patient> givenPage = new PageImpl<>(List.of(Patient.builder().id(1).lastName("TestNone").build()), pageRequest, 1);
+            expiringCache.put(0, givenPage, "\"1\"");
+            FeignException notModified = mock(FeignException.class);
+            when(notModified.status()).thenReturn(HttpStatus.NOT_MODIFIED.value());
+            when(patientProxy.getPatients(any(Optional.class), eq("\"1\""))).thenThrow(notModified);
+
+            //WHEN
+            Page<Patient> pagedPatient = expiringFrontService.getPatients(0);
+
+            //THEN
+            assertThat(pagedPatient).isSameAs(givenPage);
+            verify(patientProxy, times(1)).getPatients(any(Optional.class), eq("\"1\""));
+        }
+
+        @Test
+        @Tag("PatientFrontServiceTest")
+        @DisplayName("getPatients test should fetch again after a patient is updated")
+        public void getPatientsTestShouldFetchAgainAfterAPatientIsUpdated() {
+
+            //GIVEN
+            Patient givenPatient = Patient.builder().id(1).lastName("TestNone").build();
+            when(patientProxy.getPatients(any(Optional.class), any()))
+                    .thenReturn(ResponseEntity.ok().eTag("\"1\"").body(PageEnvelope.of(new PageImpl<>(List.of(givenPatient), pageRequest, 1))));
+            when(patientProxy.updatePatient(any(Optional.class))).thenReturn(new ResponseEntity<>(givenPatient, HttpStatus.OK));
+            patientFrontService.getPatients(0);
+
+            //WHEN
+            patientFrontService.updatePatient(givenPatient);
+            patientFrontService.getPatients(0);
+
+            //THEN
+            verify(patientProxy, times(2)).getPatients(any(Optional.class), any());
+        }
     }
 
     @Nested
@@ -157,11 +236,25 @@ public class PatientFrontServiceTest {
         public void getPatientTestShouldReturnPatient() {
 
             //GIVEN
-            when(patientProxy.getPatient(anyInt())).thenReturn(new ResponseEntity<>(givenPatient, HttpStatus.OK));
+            List<Note> givenNotes = List.of(Note.builder()
+                    .id("1")
+                    .patientId(1)
+                    .dateTime(LocalDateTime.of(2025, 5, 18, 21, 21))
+                    .content("Le patient déclare qu'il 'se sent très bien'")
+                    .build());
+            when(patientProxy.getPatientFull(1)).thenReturn(new ResponseEntity<>(PatientDetail.builder()
+                    .patient(givenPatient)
+                    .notes(PageEnvelope.<Note>builder().content(givenNotes).size(10).hasNext(true).cursor("2025-05-18T21:21_1").build())
+                    .missing(List.of())
+                    .build(), HttpStatus.OK));
             //WHEN
             Patient patientResult = patientFrontService.getPatient(1);
             //THEN
+            verify(patientProxy, times(1)).getPatientFull(1);
+            verifyNoMoreInteractions(patientProxy);
             assertThat(patientResult).isNotNull();
+            assertThat(patientResult.getMedicalNotes()).extracting(Note::getId).containsExactly("1");
+            assertThat(patientResult.getNotesCursor()).isEqualTo("2025-05-18T21:21_1");
             assertThat(patientResult)
                     .extracting(
                             Patient::getId,
@@ -175,6 +268,41 @@ public class PatientFrontServiceTest {
                             1, "Test", "TestNone", "19661231", "F", "1 Brookside St", "100-222-3333"
                     );
         }
+
+        @Test
+        @Tag("PatientFrontServiceTest")
+        @DisplayName("getPatient Test should return patient without notes if the notes are missing from the patient detail")
+        public void getPatientTestShouldReturnPatientWithoutNotesIfNotesAreMissing() {
+
+            //GIVEN
+            when(patientProxy.getPatientFull(anyInt())).thenReturn(new ResponseEntity<>(
+                    PatientDetail.builder().patient(givenPatient).missing(List.of("notes")).build(), HttpStatus.OK));
+            //WHEN
+            Patient patientResult = patientFrontService.getPatient(1);
+            //THEN
+            assertThat(patientResult).extracting(Patient::getId, Patient::getMedicalNotes).containsExactly(1, null);
+        }
+
+        @Test
+        @Tag("PatientFrontServiceTest")
+        @DisplayName("getMoreNotes Test should return the notes after the cursor")
+        public void getMoreNotesTestShouldReturnTheNotesAfterTheCursor() {
+
+            //GIVEN
+            List<Note> givenNotes = List.of(Note.builder()
+                    .id("2")
+                    .patientId(1)
+                    .dateTime(LocalDateTime.of(2025, 5, 17, 10, 0))
+                    .content("Le patient déclare qu'il fume depuis peu")
+                    .build());
+            when(patientProxy.getNoteTimeline(1, 10, "2025-05-18T21:21_1")).thenReturn(new ResponseEntity<>(
+                    PageEnvelope.<Note>builder().content(givenNotes).size(10).hasNext(false).build(), HttpStatus.OK));
+            //WHEN
+            PageEnvelope<Note> notesResult = patientFrontService.getMoreNotes(1, "2025-05-18T21:21_1");
+            //THEN
+            assertThat(notesResult.getContent()).extracting(Note::getId).containsExactly("2");
+            assertThat(notesResult.getCursor()).isNull();
+        }
     }
 
     @Nested
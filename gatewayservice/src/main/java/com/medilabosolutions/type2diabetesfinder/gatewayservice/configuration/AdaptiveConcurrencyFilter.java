@@ -0,0 +1,110 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds the requests beyond the adaptive concurrency limit of their route with 503 Service Unavailable and Retry-After,
+ * before the backend collapses under the queued work.
+ * <p>
+ * Runs after the ResponseCacheFilter, so that responses served from the cache neither count nor skew the latency.
+ * The endpoints of the gateway itself, which are not routes, are limited by the AggregationProtectionFilter.
+ * The limit, the requests in flight and the rejections of each route are published as
+ * gateway.concurrency.limit, gateway.concurrency.inflight and gateway.concurrency.rejected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+    private static final Set<Integer> DROPPED_STATUSES = Set.of(502, 503, 504);
+
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return filter(route == null ? "none" : route.getId(), exchange, chain);
+    }
+
+    /**
+     * Applies the concurrency limit of routeId to a request, routed or not.
+     *
+     * @param routeId  the id of the route, or of the endpoint, whose limit applies
+     * @param exchange the exchange
+     * @param chain    the rest of the processing of the request
+     * @return completes when the request is processed or shed
+     */
+    public Mono<Void> filter(String routeId, ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!concurrencyLimitProperties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, this::newLimiter);
+        if (!limiter.tryAcquire()) {
+            meterRegistry.counter("gateway.concurrency.rejected", "route", routeId).increment();
+            log.debug("Route {} over its concurrency limit {}", routeId, (int) limiter.getLimit());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return response.setComplete();
+        }
+        long start = System.nanoTime();
+        AtomicBoolean failed = new AtomicBoolean();
+        return chain.filter(exchange)
+                .doOnError(e -> failed.set(!isClientError(e)))
+                .doFinally(signal -> {
+                    long now = System.nanoTime();
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = failed.get() || (status != null && DROPPED_STATUSES.contains(status.value()));
+                    limiter.release(now, signal == SignalType.CANCEL ? -1 : now - start, dropped);
+                });
+    }
+
+    /**
+     * A 4xx raised by an endpoint of the gateway, such as an unknown patient, is an answer, not a dropped request
+     */
+    private static boolean isClientError(Throwable e) {
+        return e instanceof ResponseStatusException responseStatusException && responseStatusException.getStatusCode().is4xxClientError();
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Counter.builder("gateway.concurrency.rejected").tag("route", routeId).register(meterRegistry);
+        return limiter;
+    }
+
+    @Override
+    public int getOrder() {
+        return 1;
+    }
+}
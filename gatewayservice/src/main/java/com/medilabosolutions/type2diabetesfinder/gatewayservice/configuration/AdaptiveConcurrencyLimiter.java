@@ -0,0 +1,119 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD limit of the requests in flight to a route, adapted to the queueing observed.
+ * <p>
+ * The limit grows by one per round trip while it is in use and responses keep their usual latency, and is cut by backoffRatio when responses fail,
+ * at most once per round trip, or when they queue : when even the fastest of the last sampleSize responses
+ * received while the limit is in use is slower than tolerance times the minimum latency of the route over minRttWindow.
+ * The gateway then queues less work on a backend that starts to saturate, whereas a slow request, or a slow endpoint
+ * among fast ones, does not move the latency floor, and an idle route keeps its limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // guarded by this
+    private double smoothedLatencyNanos;
+    private long lastBackoffAt;
+    private long minRttWindowStart;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long previousMinRttNanos = Long.MAX_VALUE;
+    private long sampleMinNanos = Long.MAX_VALUE;
+    private int samples;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties concurrencyLimitProperties) {
+        this.concurrencyLimitProperties = concurrencyLimitProperties;
+        limit = concurrencyLimitProperties.getInitialLimit();
+    }
+
+    /**
+     * @return true if the request can be routed, and must then be released
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a routed request and adapts the limit to its outcome
+     *
+     * @param now          the current System.nanoTime()
+     * @param latencyNanos the latency of the request, negative if it was cancelled (no sample)
+     * @param dropped      true if the request failed with an error, 502, 503 or 504
+     */
+    public synchronized void release(long now, long latencyNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos < 0) {
+            return;
+        }
+        if (smoothedLatencyNanos == 0) {
+            smoothedLatencyNanos = latencyNanos;
+        }
+        if (dropped) {
+            if (now - lastBackoffAt >= smoothedLatencyNanos) {
+                backoff(now);
+            }
+            return;
+        }
+        smoothedLatencyNanos += concurrencyLimitProperties.getSmoothing() * (latencyNanos - smoothedLatencyNanos);
+        long baselineNanos = minRtt(now, latencyNanos);
+        if (2 * inFlightBefore < limit) {
+            // not in use : the latency says nothing of the queueing
+            return;
+        }
+        boolean slow = latencyNanos > concurrencyLimitProperties.getTolerance() * baselineNanos;
+        sampleMinNanos = Math.min(sampleMinNanos, latencyNanos);
+        if (++samples >= concurrencyLimitProperties.getSampleSize()) {
+            boolean queueing = sampleMinNanos > concurrencyLimitProperties.getTolerance() * baselineNanos;
+            samples = 0;
+            sampleMinNanos = Long.MAX_VALUE;
+            if (queueing) {
+                backoff(now);
+                return;
+            }
+        }
+        if (!slow) {
+            limit = Math.min(concurrencyLimitProperties.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Adds a latency to the minimum of the current window, and starts a new window once minRttWindow elapsed,
+     * so that the baseline follows a backend whose latency floor has moved
+     *
+     * @return the minimum latency over the current and previous windows
+     */
+    private long minRtt(long now, long latencyNanos) {
+        if (now - minRttWindowStart >= concurrencyLimitProperties.getMinRttWindow().toNanos()) {
+            previousMinRttNanos = minRttNanos;
+            minRttNanos = Long.MAX_VALUE;
+            minRttWindowStart = now;
+        }
+        minRttNanos = Math.min(minRttNanos, latencyNanos);
+        return Math.min(minRttNanos, previousMinRttNanos);
+    }
+
+    private void backoff(long now) {
+        limit = Math.max(concurrencyLimitProperties.getMinLimit(), limit * concurrencyLimitProperties.getBackoffRatio());
+        lastBackoffAt = now;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
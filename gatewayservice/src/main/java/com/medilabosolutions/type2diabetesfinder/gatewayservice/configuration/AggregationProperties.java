@@ -0,0 +1,28 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the aggregated patient detail served by the gateway.
+ * <p>
+ * patientServiceUri and noteServiceUri are resolved by the load balancer.
+ * patientTimeout bounds the patient leg, without which there is no detail,
+ * notesTimeout bounds the notes leg, after which the detail is sent without notes.
+ * notesLimit is the number of latest notes sent.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.aggregation")
+@Configuration
+@Getter
+@Setter
+public class AggregationProperties {
+    private String patientServiceUri = "http://patientService";
+    private String noteServiceUri = "http://noteService";
+    private Duration patientTimeout = Duration.ofSeconds(5);
+    private Duration notesTimeout = Duration.ofSeconds(2);
+    private int notesLimit = 10;
+}
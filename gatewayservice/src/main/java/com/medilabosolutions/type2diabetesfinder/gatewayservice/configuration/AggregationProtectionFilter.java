@@ -0,0 +1,64 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Rate limit and adaptive concurrency limit of the documents composed by the gateway under /api/**.
+ * <p>
+ * These endpoints are answered by a controller of the gateway, not routed : neither the RequestRateLimiter default filter
+ * nor the AdaptiveConcurrencyFilter, which filter the routes, apply to them.
+ * They share the limits of the "aggregation" id : the InMemoryRateLimiter buckets keyed by the ClientKeyResolver,
+ * so that frontService is not limited twice for its users, answering 429 Too Many Requests,
+ * then the adaptive concurrency limit, answering 503 Service Unavailable with Retry-After.
+ * Runs after the Spring Security filters, which authenticate the principal of the key.
+ */
+@Component
+@RequiredArgsConstructor
+public class AggregationProtectionFilter implements WebFilter, Ordered {
+
+    public static final String AGGREGATION_ID = "aggregation";
+
+    private static final PathPattern AGGREGATION_PATHS = PathPatternParser.defaultInstance.parse("/api/**");
+    private static final RateLimiter.Response NOT_LIMITED = new RateLimiter.Response(true, Map.of());
+
+    private final ClientKeyResolver clientKeyResolver;
+    private final InMemoryRateLimiter inMemoryRateLimiter;
+    private final AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!AGGREGATION_PATHS.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+        return clientKeyResolver.resolve(exchange)
+                .flatMap(key -> inMemoryRateLimiter.isAllowed(AGGREGATION_ID, key))
+                .defaultIfEmpty(NOT_LIMITED)
+                .flatMap(rateLimit -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    rateLimit.getHeaders().forEach(response.getHeaders()::add);
+                    if (!rateLimit.isAllowed()) {
+                        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                        return response.setComplete();
+                    }
+                    return adaptiveConcurrencyFilter.filter(AGGREGATION_ID, exchange, chain::filter);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
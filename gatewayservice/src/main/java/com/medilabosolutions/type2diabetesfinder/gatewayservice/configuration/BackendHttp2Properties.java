@@ -0,0 +1,28 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Settings of the protocol between the gateway and the services, HTTP/1.1 unless enabled is set.
+ * <p>
+ * Enabled, the routes to the services listed in services (the host of their lb:// uri) speak cleartext HTTP/2 (h2c)
+ * with prior knowledge : the concurrent requests to an instance are multiplexed over at most maxConnections connections,
+ * each carrying up to maxConcurrentStreams requests at once (fewer if the instance announces a lower limit).
+ * Every instance of these services must accept h2c, as patientService and noteService do with server.http2.enabled.
+ * The other routes, such as frontService which serves HTTP/1.1 only, keep the HTTP/1.1 HttpClient of the gateway.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.http2")
+@Configuration
+@Getter
+@Setter
+public class BackendHttp2Properties {
+    private boolean enabled = false;
+    private List<String> services = List.of("patientService", "noteService");
+    private int maxConnections = 4;
+    private int maxConcurrentStreams = 100;
+}
@@ -0,0 +1,64 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * HttpClients routing the requests from the gateway to the services, in place of the NettyRoutingFilter
+ * and NettyWriteResponseFilter of the gateway (spring.cloud.gateway.global-filter.netty-routing.enabled=false).
+ */
+@Configuration
+public class BackendHttpClientConfig {
+
+    /**
+     * Routes with h2c the services listed in BackendHttp2Properties when it is enabled,
+     * with the HTTP/1.1 HttpClient of the gateway otherwise.
+     *
+     * @param httpClient             the HTTP/1.1 HttpClient of the gateway
+     * @param headersFilters         the HttpHeadersFilter beans
+     * @param properties             spring.cloud.gateway.httpclient
+     * @param serverProperties       server
+     * @param sslConfigurer          the SSL settings of the gateway HttpClient
+     * @param customizers            the HttpClientCustomizer beans
+     * @param backendHttp2Properties whether and to which services h2c is spoken
+     * @return the routing filter
+     * @throws Exception if the h2c HttpClient cannot be built
+     */
+    @Bean
+    public BackendRoutingFilter backendRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                     HttpClientProperties properties, ServerProperties serverProperties,
+                                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                                     BackendHttp2Properties backendHttp2Properties) throws Exception {
+        HttpClient h2cHttpClient = null;
+        if (backendHttp2Properties.isEnabled()) {
+            // not a bean : an HttpClientFactory bean would replace the HTTP/1.1 one of the gateway
+            BackendHttpClientFactory factory = new BackendHttpClientFactory(properties, serverProperties, sslConfigurer, customizers, backendHttp2Properties);
+            factory.afterPropertiesSet();
+            h2cHttpClient = factory.getObject();
+        }
+        return new BackendRoutingFilter(httpClient, headersFilters, properties, h2cHttpClient, backendHttp2Properties.getServices());
+    }
+
+    /**
+     * Writes the responses received by BackendRoutingFilter : the gateway only defines it along with its NettyRoutingFilter.
+     * Named as the one of the gateway, so that the context fails to start if both routing filters are enabled.
+     *
+     * @param gatewayProperties the streaming media types, flushed buffer by buffer
+     * @return the write response filter
+     */
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties gatewayProperties) {
+        return new NettyWriteResponseFilter(gatewayProperties.getStreamingMediaTypes());
+    }
+}
@@ -0,0 +1,59 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * HttpClient speaking h2c with prior knowledge to the services which accept it, built as the gateway HttpClientFactory builds its own.
+ * <p>
+ * The connection pool keeps at most maxConnections connections per instance and multiplexes the requests over them,
+ * instead of opening a connection per concurrent request. The other pool settings of spring.cloud.gateway.httpclient.pool still apply.
+ */
+public class BackendHttpClientFactory extends HttpClientFactory {
+
+    private final BackendHttp2Properties backendHttp2Properties;
+
+    public BackendHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties, HttpClientSslConfigurer sslConfigurer,
+                                    List<HttpClientCustomizer> customizers, BackendHttp2Properties backendHttp2Properties) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.backendHttp2Properties = backendHttp2Properties;
+    }
+
+    @Override
+    protected HttpClient createInstance() {
+        return super.createInstance().protocol(HttpProtocol.H2C);
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName() + "-h2c")
+                .allocationStrategy(Http2AllocationStrategy.builder()
+                        .minConnections(1)
+                        .maxConnections(backendHttp2Properties.getMaxConnections())
+                        .maxConcurrentStreams(backendHttp2Properties.getMaxConcurrentStreams())
+                        .build())
+                .metrics(pool.isMetrics());
+        if (pool.getAcquireTimeout() != null) {
+            builder.pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+        }
+        if (pool.getMaxIdleTime() != null) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        builder.evictInBackground(pool.getEvictionInterval());
+        return builder.build();
+    }
+}
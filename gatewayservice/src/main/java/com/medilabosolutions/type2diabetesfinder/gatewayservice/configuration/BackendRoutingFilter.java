@@ -0,0 +1,55 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * NettyRoutingFilter routing the requests of the routes to the services listed in BackendHttp2Properties with an h2c HttpClient,
+ * and the other routes, such as the front, with the HTTP/1.1 HttpClient of the gateway.
+ * <p>
+ * Replaces the NettyRoutingFilter of the gateway, disabled by spring.cloud.gateway.global-filter.netty-routing.enabled=false.
+ */
+public class BackendRoutingFilter extends NettyRoutingFilter {
+
+    private final HttpClient h2cHttpClient;
+    private final List<String> h2cServices;
+
+    /**
+     * @param httpClient             the HTTP/1.1 HttpClient of the gateway
+     * @param headersFiltersProvider the HttpHeadersFilter beans
+     * @param properties             spring.cloud.gateway.httpclient
+     * @param h2cHttpClient          the h2c HttpClient, null if h2c is not enabled
+     * @param h2cServices            the services routed with h2c
+     */
+    public BackendRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                HttpClientProperties properties, HttpClient h2cHttpClient, List<String> h2cServices) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.h2cHttpClient = h2cHttpClient;
+        this.h2cServices = h2cServices;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        if (h2cHttpClient == null || !isH2c(route)) {
+            return super.getHttpClient(route, exchange);
+        }
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        return connectTimeout == null ? h2cHttpClient
+                : h2cHttpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+    }
+
+    private boolean isH2c(Route route) {
+        String service = route.getUri().getHost();
+        return "lb".equals(route.getUri().getScheme()) && service != null
+                && h2cServices.stream().anyMatch(service::equalsIgnoreCase);
+    }
+}
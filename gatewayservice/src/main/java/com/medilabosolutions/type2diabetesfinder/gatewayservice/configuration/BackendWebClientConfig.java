@@ -0,0 +1,23 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * WebClient calling the services from the gateway itself, outside of the routes.
+ */
+@Configuration
+public class BackendWebClientConfig {
+
+    /**
+     * @param builder                            the WebClient.Builder configured by Spring Boot
+     * @param loadBalancedExchangeFilterFunction resolves the service ids registered in Eureka
+     * @return the load balanced WebClient
+     */
+    @Bean
+    public WebClient backendWebClient(WebClient.Builder builder, LoadBalancedExchangeFilterFunction loadBalancedExchangeFilterFunction) {
+        return builder.filter(loadBalancedExchangeFilterFunction).build();
+    }
+}
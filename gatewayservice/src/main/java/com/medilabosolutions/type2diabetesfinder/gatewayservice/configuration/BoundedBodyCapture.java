@@ -0,0 +1,65 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Copy of a response body taken while it streams to the client, up to a maximum size.
+ * <p>
+ * The buffers are written back as they come, never aggregated : a body larger than the maximum,
+ * such as an NDJSON export, streams with flat memory and is just not captured.
+ */
+final class BoundedBodyCapture {
+
+    private BoundedBodyCapture() {
+    }
+
+    /**
+     * @param body       the body written back to the client
+     * @param maxSize    the maximum size of the copy
+     * @param onCaptured receives the whole body once written, if it was not larger than maxSize
+     * @return the body, streaming as it comes
+     */
+    static Flux<DataBuffer> tee(Publisher<? extends DataBuffer> body, long maxSize, Consumer<byte[]> onCaptured) {
+        return tee(body, maxSize, onCaptured, () -> {
+        });
+    }
+
+    /**
+     * @param body       the body written back to the client
+     * @param maxSize    the maximum size of the copy
+     * @param onCaptured receives the whole body once written, if it was not larger than maxSize
+     * @param onOverflow called once the body gets larger than maxSize
+     * @return the body, streaming as it comes
+     */
+    static Flux<DataBuffer> tee(Publisher<? extends DataBuffer> body, long maxSize, Consumer<byte[]> onCaptured, Runnable onOverflow) {
+        return Flux.defer(() -> {
+            ByteArrayOutputStream[] copy = {new ByteArrayOutputStream()};
+            return Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        if (copy[0] == null) {
+                            return;
+                        }
+                        int length = buffer.readableByteCount();
+                        if (copy[0].size() + length > maxSize) {
+                            copy[0] = null;
+                            onOverflow.run();
+                            return;
+                        }
+                        byte[] bytes = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+                        copy[0].writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (copy[0] != null) {
+                            onCaptured.accept(copy[0].toByteArray());
+                        }
+                    });
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+/**
+ * Key of the RequestRateLimiter buckets, in place of the PrincipalNameKeyResolver : the principal name and the client address.
+ * <p>
+ * The users of the front share an account, so that a bucket per principal would be one bucket for all of them :
+ * each client address has its own. The gateway faces the clients, the address is that of the connection,
+ * not an X-Forwarded-For a client could set.
+ * The requests of the exemptPrincipals get no key, and are not limited (deny-empty-key=false) :
+ * the Feign clients of frontService all come from its address, on behalf of users already limited on the front route.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientKeyResolver implements KeyResolver {
+
+    private final RateLimiterProperties rateLimiterProperties;
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .filter(name -> !rateLimiterProperties.getExemptPrincipals().contains(name))
+                .map(name -> name + '@' + clientAddressOf(exchange));
+    }
+
+    private static String clientAddressOf(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return "unknown";
+        }
+        return remoteAddress.getAddress() == null ? remoteAddress.getHostString() : remoteAddress.getAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,34 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the adaptive limit of the requests in flight to each route.
+ * <p>
+ * The limit starts at initialLimit and stays between minLimit and maxLimit.
+ * A 502/503/504 multiplies it by backoffRatio, at most once per round trip, as does queueing :
+ * the fastest of sampleSize responses received while the limit is in use slower than tolerance times
+ * the minimum latency of the route over the last minRttWindow.
+ * Any other response, unless slower than tolerance times that minimum, adds 1/limit to it while the limit is in use.
+ * smoothing is the weight of a response in the smoothed latency, the round trip time.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.concurrencylimit")
+@Configuration
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 2;
+    private int maxLimit = 200;
+    private double backoffRatio = 0.9;
+    private double tolerance = 2.0;
+    private double smoothing = 0.05;
+    private int sampleSize = 10;
+    private Duration minRttWindow = Duration.ofSeconds(30);
+}
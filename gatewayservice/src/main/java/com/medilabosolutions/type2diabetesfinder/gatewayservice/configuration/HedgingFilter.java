@@ -0,0 +1,430 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.DelegatingServiceInstance;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hedges the GET requests to the paths of the lb:// routes : when the instance chosen by the load balancer
+ * has not answered within the p95 latency of the route, the request is also sent to another instance,
+ * and the first response is written back, the other attempt being cancelled.
+ * <p>
+ * Runs between RouteToRequestUrlFilter and ReactiveLoadBalancerClientFilter, and sends each attempt down the rest of the chain
+ * with the instance it chose, notifying the LoadBalancerLifecycle of the load balancer as the gateway does :
+ * the routing filter applies the HttpHeadersFilters, the response timeout of the route and its HttpClient (pool, h2c) to both.
+ * Each attempt routes its own copy of the exchange up to the response headers : the first answered hands its status, headers
+ * and connection to the exchange, for NettyWriteResponseFilter to stream its body, and the other is closed.
+ * A failure of the primary is answered at once, whereas a hedge which fails is ignored.
+ * The latency of the attempts of a route is published as gateway.hedging.latency, with its p95 :
+ * the time to their response headers, or the time until it was cancelled for an attempt which lost the race, a lower bound.
+ * and the requests as gateway.hedging tagged result hedge (the hedge answered first), primary (the primary answered first though hedged)
+ * or unhedged (answered before the hedge delay, or no budget or other instance to hedge to).
+ */
+@Component
+@Slf4j
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    private static final long TOKEN = 1_000_000;
+
+    private final HedgingProperties hedgingProperties;
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final MeterRegistry meterRegistry;
+    private final List<PathPattern> paths;
+    private final Map<String, RouteStats> routeStats = new ConcurrentHashMap<>();
+
+    public HedgingFilter(HedgingProperties hedgingProperties, LoadBalancerClientFactory loadBalancerClientFactory, MeterRegistry meterRegistry) {
+        this.hedgingProperties = hedgingProperties;
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.meterRegistry = meterRegistry;
+        paths = hedgingProperties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!hedgingProperties.isEnabled() || url == null || route == null || !"lb".equals(url.getScheme())
+                || !HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                || paths.stream().noneMatch(pattern -> pattern.matches(exchange.getRequest().getPath().pathWithinApplication()))) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.addOriginalRequestUrl(exchange, url);
+        RouteStats stats = routeStats.computeIfAbsent(route.getId(), this::newRouteStats);
+        stats.deposit();
+        String serviceId = url.getHost();
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = loadBalancerClientFactory.getInstance(serviceId);
+        if (loadBalancer == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Unable to find instance for " + serviceId));
+        }
+        Request<RequestDataContext> primaryRequest = lbRequest(exchange);
+        AtomicBoolean hedged = new AtomicBoolean();
+        AtomicBoolean answered = new AtomicBoolean();
+        return Mono.from(loadBalancer.choose(primaryRequest))
+                .filter(Response::hasServer)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Unable to find instance for " + serviceId)))
+                .flatMap(primary -> {
+                    Mono<Attempt> first = attempt(exchange, chain, serviceId, primaryRequest, primary, url, stats, answered, false);
+                    Duration hedgeDelay = stats.hedgeDelay();
+                    if (hedgeDelay == null) {
+                        return first;
+                    }
+                    // the primary answers, or fails, as soon as it can : a hedge only ever answers first
+                    Mono<Attempt> hedge = Mono.delay(hedgeDelay)
+                            .then(Mono.defer(() -> hedge(exchange, chain, loadBalancer, serviceId, primary.getServer(), url, stats, answered)))
+                            .doOnNext(attempt -> hedged.set(true))
+                            .flatMap(Function.identity())
+                            .onErrorResume(e -> {
+                                log.debug("{} : hedge of {} failed : {}", serviceId, url, e.toString());
+                                return Mono.never();
+                            })
+                            .switchIfEmpty(Mono.never());
+                    return Mono.firstWithSignal(first, hedge);
+                })
+                .timeout(hedgingProperties.getTimeout())
+                .onErrorMap(TimeoutException.class, e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e))
+                .flatMap(attempt -> {
+                    meterRegistry.counter("gateway.hedging", "route", route.getId(), "result",
+                            attempt.isHedge() ? "hedge" : hedged.get() ? "primary" : "unhedged").increment();
+                    return answer(exchange, attempt.getExchange());
+                });
+    }
+
+    /**
+     * Chooses another instance for the hedge, if the route has one and its budget allows it
+     *
+     * @return the hedge attempt, not subscribed yet, or empty
+     */
+    private Mono<Mono<Attempt>> hedge(ServerWebExchange exchange, GatewayFilterChain chain, ReactiveLoadBalancer<ServiceInstance> loadBalancer,
+                                      String serviceId, ServiceInstance primary, URI url, RouteStats stats, AtomicBoolean answered) {
+        return Mono.justOrEmpty(loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class).getIfAvailable())
+                .flatMap(supplier -> supplier.get().next())
+                .map(instances -> instances.stream()
+                        .filter(instance -> !(instance.getHost().equals(primary.getHost()) && instance.getPort() == primary.getPort()))
+                        .toList())
+                .filter(others -> !others.isEmpty())
+                .filter(others -> stats.withdraw())
+                .map(others -> {
+                    Response<ServiceInstance> other = loadBalancer instanceof PeakEwmaLoadBalancer peakEwmaLoadBalancer
+                            ? peakEwmaLoadBalancer.choose(others)
+                            : new DefaultResponse(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+                    log.debug("{} : hedging {} to {}", serviceId, url, other.getServer().getUri());
+                    return attempt(exchange, chain, serviceId, lbRequest(exchange), other, url, stats, answered, true);
+                });
+    }
+
+    private static Request<RequestDataContext> lbRequest(ServerWebExchange exchange) {
+        return new DefaultRequest<>(new RequestDataContext(new RequestData(exchange.getRequest())));
+    }
+
+    /**
+     * Routes a copy of the exchange to an instance down the rest of the chain, up to its response headers.
+     * Only the first attempt answered keeps its connection, to stream its body : a later one is closed and never answers.
+     */
+    private Mono<Attempt> attempt(ServerWebExchange exchange, GatewayFilterChain chain, String serviceId, Request<RequestDataContext> lbRequest,
+                                  Response<ServiceInstance> lbResponse, URI url, RouteStats stats, AtomicBoolean answered, boolean hedge) {
+        Set<LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance>> lifecycles = lifecycles(serviceId);
+        ServiceInstance instance = lbResponse.getServer();
+        URI uri = LoadBalancerUriTools.reconstructURI(new DelegatingServiceInstance(instance, instance.isSecure() ? "https" : "http"), url);
+        return Mono.defer(() -> {
+            AttemptExchange attemptExchange = new AttemptExchange(exchange);
+            // routed as chosen here : ReactiveLoadBalancerClientFilter lets an http:// url through
+            attemptExchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, uri);
+            attemptExchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, lbResponse);
+            lifecycles.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
+            long start = System.nanoTime();
+            AtomicBoolean completed = new AtomicBoolean();
+            return chain.filter(attemptExchange)
+                    .then(Mono.defer(() -> {
+                        completed.set(true);
+                        stats.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        ServerHttpResponse response = attemptExchange.getResponse();
+                        lifecycles.forEach(lifecycle -> lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+                                lbRequest, lbResponse, new ResponseData(response.getStatusCode(), response.getHeaders(), null,
+                                lbRequest.getContext().getClientRequest()))));
+                        if (!answered.compareAndSet(false, true)) {
+                            attemptExchange.dispose();
+                            return Mono.<Attempt>never();
+                        }
+                        return Mono.just(new Attempt(attemptExchange, hedge));
+                    }))
+                    .doOnError(e -> {
+                        if (completed.compareAndSet(false, true)) {
+                            lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                                    new CompletionContext<>(CompletionContext.Status.FAILED, e, lbRequest, lbResponse)));
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (completed.compareAndSet(false, true)) {
+                            // the attempt which lost the race, or timed out : its latency is at least this long
+                            stats.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                                    new CompletionContext<>(CompletionContext.Status.DISCARD, lbRequest, lbResponse)));
+                            attemptExchange.dispose();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Hands the status, headers and routing state of the attempt answered first to the exchange,
+     * for NettyWriteResponseFilter to stream its body from its connection
+     */
+    private static Mono<Void> answer(ServerWebExchange exchange, AttemptExchange attemptExchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(attemptExchange.getResponse().getStatusCode());
+        response.getHeaders().clear();
+        response.getHeaders().putAll(attemptExchange.getResponse().getHeaders());
+        response.getCookies().putAll(attemptExchange.getResponse().getCookies());
+        exchange.getAttributes().putAll(attemptExchange.getAttributes());
+        return Mono.empty();
+    }
+
+    /**
+     * @return the LoadBalancerLifecycle beans of the service supporting the requests routed by the gateway
+     */
+    @SuppressWarnings("unchecked")
+    private Set<LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance>> lifecycles(String serviceId) {
+        return LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(
+                        loadBalancerClientFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
+                        RequestDataContext.class, ResponseData.class, ServiceInstance.class)
+                .stream()
+                .map(lifecycle -> (LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance>) lifecycle)
+                .collect(Collectors.toSet());
+    }
+
+    private RouteStats newRouteStats(String routeId) {
+        return new RouteStats(Timer.builder("gateway.hedging.latency")
+                .tag("route", routeId)
+                .publishPercentiles(0.95)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry));
+    }
+
+    @Override
+    public int getOrder() {
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+
+    /**
+     * The routed copy of the exchange answered first, and whether it answered the hedge
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Attempt {
+        private final AttemptExchange exchange;
+        private final boolean hedge;
+    }
+
+    /**
+     * Copy of the exchange routed by one attempt : its own attributes, where the routing filter leaves the connection,
+     * and its own response status and headers, never written. The GET request has no body to send twice.
+     */
+    private static class AttemptExchange extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+        private final ServerHttpRequest request;
+        private final AttemptResponse response;
+
+        AttemptExchange(ServerWebExchange exchange) {
+            super(exchange);
+            attributes = new ConcurrentHashMap<>(exchange.getAttributes());
+            request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return Flux.empty();
+                }
+            };
+            response = new AttemptResponse(exchange.getResponse());
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        /**
+         * Closes the connection of the response, if received
+         */
+        void dispose() {
+            Connection connection = getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+    }
+
+    /**
+     * Response of an attempt : keeps the status and headers the routing filter sets until one attempt answers
+     */
+    private static class AttemptResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final MultiValueMap<String, ResponseCookie> cookies = new LinkedMultiValueMap<>();
+        private volatile HttpStatusCode status;
+
+        AttemptResponse(ServerHttpResponse delegate) {
+            super(delegate);
+            headers.putAll(delegate.getHeaders());
+            status = delegate.getStatusCode();
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> getCookies() {
+            return cookies;
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return Mono.error(new IllegalStateException("An attempt is not written"));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return Mono.error(new IllegalStateException("An attempt is not written"));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return Mono.error(new IllegalStateException("An attempt is not written"));
+        }
+    }
+
+    /**
+     * Latency and hedge budget of a route : each request saves budgetPercent of a token, each hedge spends one.
+     */
+    private class RouteStats {
+
+        private final Timer timer;
+        private final AtomicLong budget = new AtomicLong();
+
+        RouteStats(Timer timer) {
+            this.timer = timer;
+        }
+
+        void deposit() {
+            long deposit = (long) (hedgingProperties.getBudgetPercent() / 100 * TOKEN);
+            long max = hedgingProperties.getMaxBudget() * TOKEN;
+            budget.getAndUpdate(tokens -> Math.min(max, tokens + deposit));
+        }
+
+        boolean withdraw() {
+            while (true) {
+                long tokens = budget.get();
+                if (tokens < TOKEN) {
+                    return false;
+                }
+                if (budget.compareAndSet(tokens, tokens - TOKEN)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return the p95 latency of the route, at least minDelay, or null (no hedge) until it has minSamples responses
+         */
+        Duration hedgeDelay() {
+            if (timer.count() < hedgingProperties.getMinSamples()) {
+                return null;
+            }
+            double p95 = 0;
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                if (value.percentile() == 0.95) {
+                    p95 = value.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            return Duration.ofNanos(Math.max(hedgingProperties.getMinDelay().toNanos(), (long) p95));
+        }
+    }
+}
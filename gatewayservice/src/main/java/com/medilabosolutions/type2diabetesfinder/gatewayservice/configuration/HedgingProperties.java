@@ -0,0 +1,31 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the hedged GET requests, disabled unless enabled is set.
+ * <p>
+ * A GET to the paths of an lb:// route is sent to a second instance when the first has not answered
+ * within the p95 latency of the route, at least minDelay, measured once the route has minSamples responses.
+ * Hedges are limited to budgetPercent of the requests of the route, with at most maxBudget saved up.
+ * A request whose attempts have not received their response headers within timeout fails with 504.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.hedging")
+@Configuration
+@Getter
+@Setter
+public class HedgingProperties {
+    private boolean enabled = false;
+    private List<String> paths = List.of("/patients/{id}", "/notes/patient/{id}");
+    private Duration minDelay = Duration.ofMillis(20);
+    private long minSamples = 100;
+    private double budgetPercent = 10;
+    private int maxBudget = 10;
+    private Duration timeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,125 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket rate limiter kept in the gateway memory, in place of the RedisRateLimiter of the RequestRateLimiter filter.
+ * Buckets are keyed by route and by the key of the ClientKeyResolver, the authenticated principal name and client address,
+ * and refilled lazily when a request comes in.
+ * <p>
+ * A route sets its own limits with the args of its filter, served by configService :
+ * <pre>
+ * spring.cloud.gateway.routes[0].filters[0].name=RequestRateLimiter
+ * spring.cloud.gateway.routes[0].filters[0].args.in-memory-rate-limiter.replenish-rate=5
+ * spring.cloud.gateway.routes[0].filters[0].args.in-memory-rate-limiter.burst-capacity=10
+ * </pre>
+ * the other routes use the RateLimiterProperties. A denied request is answered 429 Too Many Requests.
+ */
+@Component
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private final Config defaultConfig;
+    // Caffeine spreads the buckets over striped tables, a bucket itself is updated by compare-and-set
+    private final Cache<String, Bucket> buckets;
+
+    public InMemoryRateLimiter(RateLimiterProperties rateLimiterProperties, ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        defaultConfig = new Config();
+        defaultConfig.setReplenishRate(rateLimiterProperties.getReplenishRate());
+        defaultConfig.setBurstCapacity(rateLimiterProperties.getBurstCapacity());
+        defaultConfig.setRequestedTokens(rateLimiterProperties.getRequestedTokens());
+        buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimiterProperties.getMaxBuckets())
+                .expireAfterAccess(rateLimiterProperties.getIdleTimeout())
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return Mono.just(isAllowed(routeId, id, System.nanoTime()));
+    }
+
+    /**
+     * @param routeId the id of the route
+     * @param id      the key of the user
+     * @param now     the current System.nanoTime()
+     * @return whether the request is allowed, with the X-RateLimit headers
+     */
+    Response isAllowed(String routeId, String id, long now) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        Bucket bucket = buckets.get(routeId + '\n' + id, key -> new Bucket(config.getBurstCapacity(), now));
+        long remaining = bucket.tryConsume(config, now);
+        return new Response(remaining >= 0, Map.of(
+                REMAINING_HEADER, Long.toString(Math.max(remaining, 0)),
+                REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+                REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens())));
+    }
+
+    /**
+     * Limits of a route
+     */
+    @Validated
+    @Getter
+    @Setter
+    public static class Config {
+        @Min(1)
+        private int replenishRate;
+        @Min(1)
+        private int burstCapacity;
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+
+    /**
+     * Tokens left at the last refill, refilled with the time elapsed since on the next request.
+     */
+    private static class Bucket {
+
+        private final AtomicReference<State> state;
+
+        Bucket(double tokens, long now) {
+            state = new AtomicReference<>(new State(tokens, now));
+        }
+
+        /**
+         * @return the tokens left once the requested tokens are taken, -1 if there are not enough
+         */
+        long tryConsume(Config config, long now) {
+            while (true) {
+                State current = state.get();
+                long refilledAt = Math.max(now, current.refilledAt);
+                double tokens = Math.min(config.getBurstCapacity(),
+                        current.tokens + (refilledAt - current.refilledAt) * config.getReplenishRate() / 1_000_000_000d);
+                if (tokens < config.getRequestedTokens()) {
+                    return -1;
+                }
+                State next = new State(tokens - config.getRequestedTokens(), refilledAt);
+                if (state.compareAndSet(current, next)) {
+                    return (long) next.tokens;
+                }
+            }
+        }
+
+        private record State(double tokens, long refilledAt) {
+        }
+    }
+}
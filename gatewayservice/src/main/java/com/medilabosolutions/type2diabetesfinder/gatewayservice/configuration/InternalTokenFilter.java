@@ -0,0 +1,53 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Routes an authenticated request with an internal token in place of its credentials,
+ * so the services check a signature instead of the password again.
+ * An internal token sent by the client is always dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class InternalTokenFilter implements GlobalFilter, Ordered {
+
+    private final InternalTokenProperties internalTokenProperties;
+    private final InternalTokenSigner internalTokenSigner;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest.Builder request = exchange.getRequest().mutate()
+                .headers(headers -> headers.remove(internalTokenProperties.getHeader()));
+        if (!internalTokenSigner.isEnabled()) {
+            return chain.filter(exchange.mutate().request(request.build()).build());
+        }
+        return exchange.getPrincipal()
+                .filter(Authentication.class::isInstance)
+                .cast(Authentication.class)
+                .filter(Authentication::isAuthenticated)
+                .map(authentication -> request.headers(headers -> {
+                    headers.remove(HttpHeaders.AUTHORIZATION);
+                    headers.set(internalTokenProperties.getHeader(), internalTokenSigner.sign(authentication.getName(),
+                            AuthorityUtils.authorityListToSet(authentication.getAuthorities()), Instant.now()));
+                }))
+                .defaultIfEmpty(request)
+                .flatMap(authenticatedRequest -> chain.filter(exchange.mutate().request(authenticatedRequest.build()).build()));
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the internal token minted by the gateway for the authenticated requests it routes.
+ * <p>
+ * secret is the HMAC key shared with the services, no token is minted while it is blank.
+ * The token is sent in the header named header and expires after ttl.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.internaltoken")
+@Configuration
+@Getter
+@Setter
+public class InternalTokenProperties {
+    private String secret;
+    private Duration ttl = Duration.ofSeconds(30);
+    private String header = "X-Internal-Auth";
+}
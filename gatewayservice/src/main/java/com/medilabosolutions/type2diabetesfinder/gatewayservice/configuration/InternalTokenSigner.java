@@ -0,0 +1,74 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * HMAC-SHA256 signed token carrying a user authenticated by the gateway to the services,
+ * which check its signature instead of matching a BCrypt password on every request.
+ * <p>
+ * token = base64url(username LF authorities LF expiresAt) "." base64url(HmacSHA256(secret, first part)),
+ * authorities being comma separated and expiresAt in epoch seconds.
+ */
+@Component
+@Slf4j
+public class InternalTokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final InternalTokenProperties internalTokenProperties;
+    // a Mac is not thread safe
+    private final ThreadLocal<Mac> macs;
+
+    public InternalTokenSigner(InternalTokenProperties internalTokenProperties) {
+        this.internalTokenProperties = internalTokenProperties;
+        if (StringUtils.hasText(internalTokenProperties.getSecret())) {
+            SecretKeySpec key = new SecretKeySpec(internalTokenProperties.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+            macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(ALGORITHM);
+                    mac.init(key);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } else {
+            log.warn("No internal token secret : requests are routed with their own credentials");
+            macs = null;
+        }
+    }
+
+    /**
+     * @return false while no secret is configured
+     */
+    public boolean isEnabled() {
+        return macs != null;
+    }
+
+    /**
+     * @param username    the authenticated user
+     * @param authorities its authorities
+     * @param now         the current time
+     * @return the token, valid until now + ttl
+     */
+    public String sign(String username, Collection<String> authorities, Instant now) {
+        String payload = username + "\n" + String.join(",", authorities) + "\n" + now.plus(internalTokenProperties.getTtl()).getEpochSecond();
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(hmac(encodedPayload));
+    }
+
+    private byte[] hmac(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,12 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Balances the lb:// routes and the backendWebClient with the PeakEwmaLoadBalancer instead of round robin.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerClientConfiguration.class)
+public class LoadBalancerConfig {
+}
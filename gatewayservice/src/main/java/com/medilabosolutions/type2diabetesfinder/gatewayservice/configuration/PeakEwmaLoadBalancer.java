@@ -0,0 +1,166 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load balancer choosing, of two instances drawn at random, the one with the lowest cost :
+ * its peak EWMA latency times its outstanding requests plus one.
+ * A slow instance (GC pause, noisy neighbour) is then left aside within a few requests,
+ * instead of receiving its round robin share, and is drawn again once its latency has decayed.
+ * <p>
+ * It is also the LoadBalancerLifecycle of its service, measuring the requests of the gateway routes,
+ * of the WebClient and of the Feign clients it balances.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer, LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final PeakEwmaProperties peakEwmaProperties;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider, String serviceId,
+                                PeakEwmaProperties peakEwmaProperties) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.peakEwmaProperties = peakEwmaProperties;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    /**
+     * @param instances the instances of the service
+     * @return the cheaper of two instances drawn at random
+     */
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(statsOf(a).cost(now) <= statsOf(b).cost(now) ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        statsOf(lbResponse.getServer()).outstanding.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = statsOf(lbResponse.getServer());
+        instanceStats.outstanding.decrementAndGet();
+        if (!(completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context)
+                || context.getRequestStartTime() == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long latency = now - context.getRequestStartTime();
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            // cancelled before its response, such as the attempt losing a hedge : its latency is at least this long
+            instanceStats.observeAtLeast(now, latency);
+            return;
+        }
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (completionContext.getClientResponse() instanceof ResponseData responseData
+                && responseData.getHttpStatus() != null && responseData.getHttpStatus().is5xxServerError());
+        instanceStats.observe(now, failed ? Math.max(latency, peakEwmaProperties.getFailureLatency().toNanos()) : latency);
+    }
+
+    private InstanceStats statsOf(ServiceInstance instance) {
+        return stats.computeIfAbsent(instance.getHost() + ':' + instance.getPort(), key -> new InstanceStats());
+    }
+
+    /**
+     * Peak EWMA latency and outstanding requests of an instance.
+     */
+    private class InstanceStats {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+        // guarded by this
+        private double latency = -1;
+        private long observedAt;
+
+        synchronized void observe(long now, long sample) {
+            if (latency < 0 || sample > latency) {
+                latency = sample;
+            } else {
+                double weight = decayWeight(now);
+                latency = latency * weight + sample * (1 - weight);
+            }
+            observedAt = now;
+        }
+
+        /**
+         * A lower bound only raises the latency : below it, it tells nothing about the instance.
+         */
+        synchronized void observeAtLeast(long now, long lowerBound) {
+            if (latency < 0 || lowerBound > latency * decayWeight(now)) {
+                latency = lowerBound;
+                observedAt = now;
+            }
+        }
+
+        /**
+         * The latency decays since its last observation : an instance left aside because it was slow
+         * is drawn again within about decayTime, and its next responses show whether it has recovered.
+         */
+        synchronized double cost(long now) {
+            double currentLatency = latency < 0 ? peakEwmaProperties.getInitialLatency().toNanos() : latency * decayWeight(now);
+            return currentLatency * (outstanding.get() + 1);
+        }
+
+        private double decayWeight(long now) {
+            return Math.exp(-(double) Math.max(now - observedAt, 0) / peakEwmaProperties.getDecayTime().toNanos());
+        }
+    }
+}
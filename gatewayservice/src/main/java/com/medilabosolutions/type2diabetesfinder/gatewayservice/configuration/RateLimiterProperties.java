@@ -0,0 +1,30 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Default settings of the in-memory rate limiter, for the routes whose RequestRateLimiter filter sets no in-memory-rate-limiter args.
+ * <p>
+ * Each user of a route has a bucket of burstCapacity tokens, refilled with replenishRate tokens per second,
+ * and each request takes requestedTokens tokens.
+ * At most maxBuckets buckets are kept, a bucket unused for idleTimeout is dropped (it would be full again).
+ * The requests of the exemptPrincipals, the internal clients, are not limited.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.ratelimiter")
+@Configuration
+@Getter
+@Setter
+public class RateLimiterProperties {
+    private int replenishRate = 20;
+    private int burstCapacity = 40;
+    private int requestedTokens = 1;
+    private long maxBuckets = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private List<String> exemptPrincipals = List.of("frontService");
+}
@@ -0,0 +1,211 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bounded cache of the GET responses routed by the gateway, keyed by user, URI and negotiated representation.
+ * Entries are kept up to maxStale so that an expired response can still be revalidated with its ETag.
+ * <p>
+ * The lookups are counted per route by the metric gateway.response.cache, tagged result hit, miss or revalidated.
+ */
+@Component
+public class ResponseCache {
+
+    private static final String CACHE_NAME = "gatewayResponses";
+    private static final String METRIC_NAME = "gateway.response.cache";
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.SET_COOKIE, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, HttpHeaders.AGE);
+
+    private final Cache<String, CachedResponse> responses;
+    private final List<PathPattern> paths;
+    private final long ttlNanos;
+    private final long maxEntryBytes;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCache(ResponseCacheProperties responseCacheProperties, MeterRegistry meterRegistry) {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(responseCacheProperties.getMaxSize().toBytes())
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.getBody().length)
+                .expireAfterWrite(responseCacheProperties.getMaxStale())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+        paths = responseCacheProperties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        ttlNanos = responseCacheProperties.getTtl().toNanos();
+        maxEntryBytes = responseCacheProperties.getMaxEntrySize().toBytes();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return the size above which a body is not cached
+     */
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * @param path the path of a request
+     * @return the configured pattern matching the path, null if its responses are not cached
+     */
+    public PathPattern patternOf(PathContainer path) {
+        return paths.stream().filter(pattern -> pattern.matches(path)).findFirst().orElse(null);
+    }
+
+    /**
+     * @param username the authenticated user
+     * @param request  the GET request
+     * @return the key of the response to the request for the user
+     */
+    public String keyOf(String username, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return username + '\n' + request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '\n' + headers.getFirst(HttpHeaders.ACCEPT) + '\n' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * @param key the key of the response
+     * @return the cached response, fresh or not, or null if absent
+     */
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    /**
+     * Caches a 200 response, as long as its Cache-Control allows it and its body is not too large.
+     * A response to revalidate on every use (no-cache, max-age=0) is only cached with an ETag.
+     *
+     * @param key     the key of the response
+     * @param pattern the configured pattern matching its path
+     * @param headers the headers of the response
+     * @param body    the body of the response
+     * @return the cached response, null if it is not cacheable
+     */
+    public CachedResponse put(String key, PathPattern pattern, HttpHeaders headers, byte[] body) {
+        long freshNanos = freshNanos(headers);
+        String eTag = headers.getETag();
+        if (freshNanos < 0 || (freshNanos == 0 && eTag == null) || body.length > maxEntryBytes) {
+            responses.invalidate(key);
+            return null;
+        }
+        HttpHeaders stored = new HttpHeaders();
+        stored.putAll(headers);
+        UNCACHED_HEADERS.forEach(stored::remove);
+        CachedResponse cached = new CachedResponse(HttpHeaders.readOnlyHttpHeaders(stored), body, eTag, pattern, System.nanoTime(), freshNanos);
+        responses.put(key, cached);
+        return cached;
+    }
+
+    /**
+     * Drops the responses of all users to the paths matching a pattern :
+     * a create, update or delete through any of them can change the others (pages, timelines).
+     *
+     * @param pattern the configured pattern
+     */
+    public void invalidate(PathPattern pattern) {
+        responses.asMap().values().removeIf(cached -> cached.getPattern().equals(pattern));
+    }
+
+    /**
+     * Counts a lookup
+     *
+     * @param routeId the id of the route
+     * @param result  hit, miss or revalidated
+     */
+    public void record(String routeId, String result) {
+        Counter.builder(METRIC_NAME)
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * As a shared cache, the gateway does not store a private response, and prefers s-maxage to max-age.
+     *
+     * @param headers the headers of a response
+     * @return how long the response is fresh : its s-maxage or max-age, at most ttl, or ttl if it has none,
+     * 0 with no-cache, -1 with no-store or private
+     */
+    long freshNanos(HttpHeaders headers) {
+        long maxAgeNanos = -1;
+        long sharedMaxAgeNanos = -1;
+        boolean noCache = false;
+        for (String directive : directivesOf(headers)) {
+            if (directive.equals("no-store") || directive.startsWith("private")) {
+                return -1;
+            } else if (directive.equals("no-cache")) {
+                noCache = true;
+            } else if (directive.startsWith("max-age=")) {
+                maxAgeNanos = secondsToNanos(directive.substring("max-age=".length()));
+            } else if (directive.startsWith("s-maxage=")) {
+                sharedMaxAgeNanos = secondsToNanos(directive.substring("s-maxage=".length()));
+            }
+        }
+        if (noCache) {
+            return 0;
+        }
+        long ageNanos = sharedMaxAgeNanos >= 0 ? sharedMaxAgeNanos : maxAgeNanos;
+        return ageNanos >= 0 ? Math.min(ttlNanos, ageNanos) : ttlNanos;
+    }
+
+    /**
+     * @param headers the headers of a response
+     * @return its Cache-Control directives, trimmed and in lower case
+     */
+    static List<String> directivesOf(HttpHeaders headers) {
+        return headers.getOrEmpty(HttpHeaders.CACHE_CONTROL).stream()
+                .flatMap(value -> List.of(value.split(",")).stream())
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    private static long secondsToNanos(String seconds) {
+        try {
+            return Math.max(Duration.ofSeconds(Long.parseLong(seconds)).toNanos(), 0);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A response with the time it was received or last revalidated.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedResponse {
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final String eTag;
+        private final PathPattern pattern;
+        private final long fetchedAt;
+        private final long freshNanos;
+
+        public boolean isFresh() {
+            return System.nanoTime() - fetchedAt < freshNanos;
+        }
+
+        /**
+         * @return the Age of the response in seconds
+         */
+        public long getAge() {
+            return Duration.ofNanos(System.nanoTime() - fetchedAt).toSeconds();
+        }
+    }
+}
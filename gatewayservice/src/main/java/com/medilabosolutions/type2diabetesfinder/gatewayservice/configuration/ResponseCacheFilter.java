@@ -0,0 +1,202 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.ResponseCache.CachedResponse;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves the GET responses of the cached paths from the ResponseCache while they are fresh,
+ * revalidates them with their ETag once stale, and drops them when a POST, PUT, PATCH or DELETE is routed to the same paths.
+ * <p>
+ * The backends mark the responses the gateway may store with s-maxage (or public) :
+ * the gateway marks them private again for the clients, since they hold the data of one user.
+ * <p>
+ * Runs before the SingleFlightFilter and NettyWriteResponseFilter so that it sees the body written back to the client,
+ * whether received from the backend or shared by a concurrent identical request.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final Set<HttpMethod> UNSAFE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    // headers a 304 Not Modified updates on the cached response
+    private static final List<String> REVALIDATED_HEADERS = List.of(HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG,
+            HttpHeaders.EXPIRES, HttpHeaders.DATE, HttpHeaders.VARY);
+
+    private final ResponseCache responseCache;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathPattern pattern = responseCache.patternOf(request.getPath().pathWithinApplication());
+        if (pattern == null) {
+            return chain.filter(exchange);
+        }
+        if (HttpMethod.GET.equals(request.getMethod())) {
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .defaultIfEmpty("")
+                    .flatMap(username -> username.isEmpty() ? chain.filter(exchange)
+                            : get(exchange, chain, pattern, responseCache.keyOf(username, request)));
+        }
+        if (UNSAFE_METHODS.contains(request.getMethod())) {
+            return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(pattern));
+        }
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> get(ServerWebExchange exchange, GatewayFilterChain chain, PathPattern pattern, String key) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            privateForClient(response.getHeaders());
+            return Mono.empty();
+        });
+        String routeId = routeIdOf(exchange);
+        List<String> requestCacheControl = exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL);
+        boolean noStore = requestCacheControl.stream().anyMatch(value -> value.contains("no-store"));
+        boolean noCache = noStore || requestCacheControl.stream().anyMatch(value -> value.contains("no-cache"));
+        CachedResponse cached = noCache ? null : responseCache.get(key);
+        if (cached != null && cached.isFresh()) {
+            responseCache.record(routeId, "hit");
+            return write(exchange, cached);
+        }
+        ServerWebExchange forwarded = exchange;
+        CachedResponse revalidating = null;
+        if (cached != null && cached.getETag() != null && !exchange.getRequest().getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)) {
+            revalidating = cached;
+            forwarded = exchange.mutate()
+                    .request(request -> request.headers(headers -> headers.setIfNoneMatch(cached.getETag())))
+                    .build();
+        } else {
+            responseCache.record(routeId, "miss");
+        }
+        return chain.filter(forwarded.mutate()
+                .response(new CachingResponse(forwarded.getResponse(), key, pattern, routeId, revalidating, !noStore))
+                .build());
+    }
+
+    /**
+     * Writes a fresh cached response, or 304 Not Modified if the client already has it
+     */
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.getHeaders());
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.getAge()));
+        if (cached.getETag() != null && matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    /**
+     * Replaces the public and s-maxage directives, which let any shared cache store the response, by private
+     */
+    private static void privateForClient(HttpHeaders headers) {
+        List<String> directives = ResponseCache.directivesOf(headers);
+        if (directives.stream().noneMatch(directive -> directive.equals("public") || directive.startsWith("s-maxage="))) {
+            return;
+        }
+        List<String> kept = new ArrayList<>(directives.stream()
+                .filter(directive -> !directive.equals("public") && !directive.startsWith("s-maxage="))
+                .toList());
+        kept.add("private");
+        headers.setCacheControl(String.join(", ", kept));
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        return ifNoneMatch.contains("*") || ifNoneMatch.contains(eTag);
+    }
+
+    private static String routeIdOf(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "none" : route.getId();
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    /**
+     * Response capturing the body written back to the client to cache it,
+     * or replacing the 304 Not Modified answered to a revalidation by the cached response.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final PathPattern pattern;
+        private final String routeId;
+        private final CachedResponse revalidating;
+        private final boolean storable;
+
+        CachingResponse(ServerHttpResponse delegate, String key, PathPattern pattern, String routeId,
+                        CachedResponse revalidating, boolean storable) {
+            super(delegate);
+            this.key = key;
+            this.pattern = pattern;
+            this.routeId = routeId;
+            this.revalidating = revalidating;
+            this.storable = storable;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (revalidating != null) {
+                if (HttpStatus.NOT_MODIFIED.equals(status)) {
+                    responseCache.record(routeId, "revalidated");
+                    HttpHeaders revalidated = new HttpHeaders();
+                    revalidated.putAll(revalidating.getHeaders());
+                    REVALIDATED_HEADERS.stream()
+                            .filter(getHeaders()::containsKey)
+                            .forEach(name -> revalidated.put(name, getHeaders().get(name)));
+                    responseCache.put(key, pattern, revalidated, revalidating.getBody());
+                    getHeaders().clear();
+                    getHeaders().putAll(revalidated);
+                    setStatusCode(HttpStatus.OK);
+                    return Flux.from(body)
+                            .doOnNext(DataBufferUtils::release)
+                            .then(super.writeWith(Mono.just(bufferFactory().wrap(revalidating.getBody()))));
+                }
+                responseCache.record(routeId, "miss");
+            }
+            if (!storable || !HttpStatus.OK.equals(status) || responseCache.freshNanos(getHeaders()) < 0) {
+                return super.writeWith(body);
+            }
+            // as received from the backend : the client gets them marked private on commit
+            HttpHeaders received = new HttpHeaders();
+            received.putAll(getHeaders());
+            // streamed as received : a body larger than maxEntrySize, such as an export, is not aggregated
+            return super.writeWith(BoundedBodyCapture.tee(body, responseCache.getMaxEntryBytes(),
+                    bytes -> responseCache.put(key, pattern, received, bytes)));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the gateway cache of the GET responses, kept per user.
+ * <p>
+ * Only the responses to the paths are cached. A response is fresh for the max-age sent by the backend, at most ttl,
+ * then it is revalidated with its ETag, and it is evicted after maxStale.
+ * The cache holds at most maxSize of bodies, a body larger than maxEntrySize is not cached.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.responsecache")
+@Configuration
+@Getter
+@Setter
+public class ResponseCacheProperties {
+    private List<String> paths = List.of("/patients/**", "/notes/**");
+    private Duration ttl = Duration.ofSeconds(30);
+    private Duration maxStale = Duration.ofMinutes(10);
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+}
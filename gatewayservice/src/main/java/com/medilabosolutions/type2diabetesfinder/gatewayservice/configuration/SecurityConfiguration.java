@@ -44,7 +44,13 @@ public class SecurityConfiguration {
                 .password(passwordEncoder.encode("user"))
                 .authorities("USER")
                 .build();
-        return new MapReactiveUserDetailsService(user);
+        // account of the Feign clients of frontService, which call the gateway back on behalf of the users of the front
+        UserDetails frontService = User.builder()
+                .username("frontService")
+                .password(passwordEncoder.encode("frontService"))
+                .authorities("USER")
+                .build();
+        return new MapReactiveUserDetailsService(user, frontService);
     }
 
     /**
@@ -116,7 +122,7 @@ public class SecurityConfiguration {
                 .authorizeExchange(exchange -> exchange
                         .pathMatchers("/login", "/logout").permitAll()
                         .pathMatchers("/css/**", "/js/**", "/images/**", "/webjars/**", "/favicon.ico").permitAll()
-                        .pathMatchers("/front", "/front/", "/front/**", "/patients", "/patients/**").hasAuthority("USER")
+                        .pathMatchers("/front", "/front/", "/front/**", "/patients", "/patients/**", "/api/**").hasAuthority("USER")
                         .anyExchange().authenticated()
                 )
                 // Configure form login
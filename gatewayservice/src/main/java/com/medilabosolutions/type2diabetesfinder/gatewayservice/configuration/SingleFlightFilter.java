@@ -0,0 +1,185 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses concurrent identical GET requests into one routed request : the first one (the leader) is routed,
+ * the others (the followers) wait for its response and receive a copy of it.
+ * <p>
+ * Requests are identical when they have the same path, query, Accept and Accept-Encoding,
+ * and their principals the same authorities : the services authorize by authority only,
+ * so the response to the leader is the one any follower would receive.
+ * Conditional requests are not coalesced, since their response depends on what the client already has.
+ * A follower is routed on its own when the leader fails, is cancelled or is slower than maxWait.
+ * <p>
+ * Runs after the ResponseCacheFilter, so that only cache misses are coalesced and followers still fill their cache,
+ * and before NettyWriteResponseFilter, so that it sees the body written back to the leader.
+ * The requests are counted per route by gateway.singleflight, tagged result leader, follower or fallback.
+ */
+@Component
+public class SingleFlightFilter implements GlobalFilter, Ordered {
+
+    private static final String METRIC_NAME = "gateway.singleflight";
+    private static final List<String> UNSHARED_HEADERS = List.of(HttpHeaders.SET_COOKIE, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+    private final SingleFlightProperties singleFlightProperties;
+    private final MeterRegistry meterRegistry;
+    private final List<PathPattern> paths;
+    private final Map<String, Sinks.One<SharedResponse>> flights = new ConcurrentHashMap<>();
+
+    public SingleFlightFilter(SingleFlightProperties singleFlightProperties, MeterRegistry meterRegistry) {
+        this.singleFlightProperties = singleFlightProperties;
+        this.meterRegistry = meterRegistry;
+        paths = singleFlightProperties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        PathContainer path = request.getPath().pathWithinApplication();
+        if (!HttpMethod.GET.equals(request.getMethod())
+                || headers.containsKey(HttpHeaders.IF_NONE_MATCH) || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)
+                || paths.stream().noneMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+                .filter(Authentication.class::isInstance)
+                .map(principal -> new TreeSet<>(AuthorityUtils.authorityListToSet(((Authentication) principal).getAuthorities())).toString())
+                .defaultIfEmpty("")
+                .flatMap(scope -> scope.isEmpty() ? chain.filter(exchange) : coalesce(exchange, chain, keyOf(scope, request)));
+    }
+
+    private static String keyOf(String scope, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return scope + '\n' + request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '\n' + headers.getFirst(HttpHeaders.ACCEPT) + '\n' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, String key) {
+        String routeId = routeIdOf(exchange);
+        Sinks.One<SharedResponse> flight = Sinks.one();
+        Sinks.One<SharedResponse> leading = flights.putIfAbsent(key, flight);
+        if (leading == null) {
+            record(routeId, "leader");
+            return chain.filter(exchange.mutate().response(new SharingResponse(exchange.getResponse(), key, flight)).build())
+                    .doFinally(signal -> {
+                        // no response shared when the leader failed or was cancelled : the followers are routed on their own
+                        flights.remove(key, flight);
+                        flight.tryEmitEmpty();
+                    });
+        }
+        return leading.asMono()
+                .timeout(singleFlightProperties.getMaxWait(), Mono.empty())
+                .flatMap(shared -> {
+                    record(routeId, "follower");
+                    return write(exchange.getResponse(), shared).thenReturn(true);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    record(routeId, "fallback");
+                    return chain.filter(exchange).thenReturn(true);
+                }))
+                .then();
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.getStatus());
+        response.getHeaders().putAll(shared.getHeaders());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.getBody())));
+    }
+
+    private void record(String routeId, String result) {
+        meterRegistry.counter(METRIC_NAME, "route", routeId, "result", result).increment();
+    }
+
+    private static String routeIdOf(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "none" : route.getId();
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    /**
+     * A response received by a leader
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class SharedResponse {
+        private final HttpStatusCode status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+    }
+
+    /**
+     * Response of the leader, sharing the response written back to it with its followers.
+     */
+    private class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> flight;
+
+        SharingResponse(ServerHttpResponse delegate, String key, Sinks.One<SharedResponse> flight) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long contentLength = getHeaders().getContentLength();
+            if (contentLength > singleFlightProperties.getMaxBodySize().toBytes()) {
+                return super.writeWith(body);
+            }
+            // as received from the backend, before the commit : the ResponseCacheFilter of the leader then marks them private
+            // for its client, whereas the followers still fill their own cache with them
+            HttpStatusCode status = getStatusCode() == null ? HttpStatus.OK : getStatusCode();
+            HttpHeaders shared = new HttpHeaders();
+            shared.putAll(getHeaders());
+            UNSHARED_HEADERS.forEach(shared::remove);
+            // streamed as received : a body larger than maxBodySize, such as an export, is not aggregated
+            return super.writeWith(BoundedBodyCapture.tee(body, singleFlightProperties.getMaxBodySize().toBytes(), bytes -> {
+                // later requests start a new flight instead of receiving this response
+                flights.remove(key, flight);
+                flight.tryEmitValue(new SharedResponse(status, HttpHeaders.readOnlyHttpHeaders(shared), bytes));
+            }, () -> {
+                // too large to be shared : the followers are routed on their own without waiting for the end of the body
+                flights.remove(key, flight);
+                flight.tryEmitEmpty();
+            }));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the coalescing of concurrent identical GET requests.
+ * <p>
+ * Only the requests to the paths are coalesced. A follower waits at most maxWait for the response of the leader
+ * before being routed on its own, and a response larger than maxBodySize is not shared.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.gatewayservice.singleflight")
+@Configuration
+@Getter
+@Setter
+public class SingleFlightProperties {
+    private List<String> paths = List.of("/patients/**", "/notes/**");
+    private Duration maxWait = Duration.ofSeconds(2);
+    private DataSize maxBodySize = DataSize.ofMegabytes(1);
+}
@@ -0,0 +1,95 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.web.reactive.config.ResourceHandlerRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.resource.ContentVersionStrategy;
+import org.springframework.web.reactive.resource.EncodedResourceResolver;
+import org.springframework.web.reactive.resource.VersionResourceResolver;
+import org.springframework.web.server.WebFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned resource chain of the static resources.
+ * <p>
+ * Resources are served under a URL carrying the hash of their content (css/login.css as css/login-{md5}.css),
+ * as immutable, a new version getting a new URL.
+ * The gzip and brotli variants precompressed at build time are served by the EncodedResourceResolver
+ * to browsers accepting them.
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class StaticResourceConfig implements WebFluxConfigurer {
+
+    private static final String[] VERSIONED_DIRECTORIES = {"css", "js"};
+
+    private final StaticResourceProperties staticResourceProperties;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : VERSIONED_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(CacheControl.maxAge(staticResourceProperties.getCacheMaxAge()).cachePublic().immutable())
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /**
+     * Rewrites the links written with @{...} in the templates to the static resources, with their versioned URL.
+     * WebFlux has no ResourceUrlEncodingFilter and a link is rewritten synchronously,
+     * so the versioned URLs are computed once, at startup, from the resources on the classpath.
+     * The templates link them under the gateway route /gatewayservice.
+     *
+     * @return the filter registering the URL transformer on each exchange
+     */
+    @Bean
+    public WebFilter versionedResourceUrlFilter() {
+        Map<String, String> versionedUrls = versionedUrls("/gatewayservice/");
+        return (exchange, chain) -> {
+            exchange.addUrlTransformer(url -> versionedUrls.getOrDefault(url, url));
+            return chain.filter(exchange);
+        };
+    }
+
+    /**
+     * @param prefix the URL prefix of the static resources
+     * @return the versioned URL of each static resource, by its URL
+     */
+    static Map<String, String> versionedUrls(String prefix) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        ContentVersionStrategy versionStrategy = new ContentVersionStrategy();
+        Map<String, String> versionedUrls = new HashMap<>();
+        try {
+            for (String directory : VERSIONED_DIRECTORIES) {
+                String location = "classpath:/static/" + directory + "/";
+                Resource base = resolver.getResource(location);
+                if (!base.exists()) {
+                    continue;
+                }
+                for (Resource resource : resolver.getResources(location + "**/*." + directory)) {
+                    String path = directory + "/" + resource.getURI().toString().substring(base.getURI().toString().length());
+                    String version = versionStrategy.getResourceVersion(resource).block();
+                    versionedUrls.put(prefix + path, prefix + versionStrategy.addVersion(path, version));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("{} versioned static resources", versionedUrls.size());
+        return versionedUrls;
+    }
+}
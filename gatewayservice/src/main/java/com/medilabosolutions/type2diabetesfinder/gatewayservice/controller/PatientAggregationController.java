@@ -0,0 +1,36 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.controller;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.service.PatientAggregationService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Documents composed by the gateway from several services, in one round trip.
+ */
+@RestController
+@AllArgsConstructor
+public class PatientAggregationController {
+
+    private final PatientAggregationService patientAggregationService;
+
+    /**
+     * Retrieves a patient with its latest notes.
+     *
+     * @param id             the id of the patient
+     * @param authentication the authenticated user
+     * @param authorization  the Authorization header, if any
+     * @return the document {"patient": ..., "notes": ..., "missing": [...]}, "notes" being null and missing when noteService is unavailable
+     */
+    @GetMapping("/api/patients/{id}/full")
+    public Mono<ObjectNode> getPatientFull(@PathVariable("id") Integer id, Authentication authentication,
+                                           @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return patientAggregationService.getPatientFull(id, authentication, authorization);
+    }
+}
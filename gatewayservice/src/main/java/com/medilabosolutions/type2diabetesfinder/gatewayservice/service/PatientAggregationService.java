@@ -0,0 +1,24 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+/**
+ * PatientAggregationService composes the documents of several services into one response.
+ */
+public interface PatientAggregationService {
+
+    /**
+     * Retrieves a patient and its latest notes, fetched in parallel.
+     * The detail is sent without notes, and "notes" listed in "missing", when noteService fails or is too slow.
+     *
+     * @param id             the id of the patient
+     * @param authentication the authenticated user
+     * @param authorization  the Authorization header received, null if none
+     * @return the document {"patient": ..., "notes": ..., "missing": [...]}
+     * @throws org.springframework.web.server.ResponseStatusException with the status of patientService if it answers 4xx,
+     *                                                                 504 if it is too slow, 502 otherwise
+     */
+    Mono<ObjectNode> getPatientFull(Integer id, Authentication authentication, String authorization);
+}
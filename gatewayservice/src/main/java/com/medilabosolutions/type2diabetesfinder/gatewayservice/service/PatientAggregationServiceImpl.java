@@ -0,0 +1,99 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.AggregationProperties;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.InternalTokenProperties;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.InternalTokenSigner;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the PatientAggregationService interface, calling patientService and noteService with the backendWebClient.
+ * The services are called with an internal token for the user, or with its Authorization header while no token is minted.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+public class PatientAggregationServiceImpl implements PatientAggregationService {
+
+    private final WebClient backendWebClient;
+    private final AggregationProperties aggregationProperties;
+    private final InternalTokenProperties internalTokenProperties;
+    private final InternalTokenSigner internalTokenSigner;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<ObjectNode> getPatientFull(Integer id, Authentication authentication, String authorization) {
+        Consumer<HttpHeaders> credentials = credentialsOf(authentication, authorization);
+        Mono<JsonNode> patient = get(aggregationProperties.getPatientServiceUri() + "/patients/{id}", credentials, id)
+                .timeout(aggregationProperties.getPatientTimeout())
+                .onErrorMap(e -> patientError(id, e));
+        Mono<Optional<JsonNode>> notes = get(aggregationProperties.getNoteServiceUri() + "/notes/patient/{id}/timeline?limit={limit}",
+                credentials, id, aggregationProperties.getNotesLimit())
+                .timeout(aggregationProperties.getNotesTimeout())
+                .map(Optional::of)
+                .onErrorResume(e -> {
+                    log.warn("Notes of patient {} not received : {}", id, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+        return Mono.zip(patient, notes).map(legs -> {
+            ObjectNode full = objectMapper.createObjectNode();
+            full.set("patient", legs.getT1());
+            full.set("notes", legs.getT2().orElse(null));
+            full.putArray("missing");
+            if (legs.getT2().isEmpty()) {
+                full.withArray("missing").add("notes");
+            }
+            return full;
+        });
+    }
+
+    private Mono<JsonNode> get(String uri, Consumer<HttpHeaders> credentials, Object... uriVariables) {
+        return backendWebClient.get()
+                .uri(uri, uriVariables)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(credentials)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private Consumer<HttpHeaders> credentialsOf(Authentication authentication, String authorization) {
+        if (internalTokenSigner.isEnabled() && authentication != null && authentication.isAuthenticated()) {
+            String token = internalTokenSigner.sign(authentication.getName(),
+                    AuthorityUtils.authorityListToSet(authentication.getAuthorities()), Instant.now());
+            return headers -> headers.set(internalTokenProperties.getHeader(), token);
+        }
+        return headers -> {
+            if (authorization != null) {
+                headers.set(HttpHeaders.AUTHORIZATION, authorization);
+            }
+        };
+    }
+
+    private static Throwable patientError(Integer id, Throwable e) {
+        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            return new ResponseStatusException(response.getStatusCode(), "Patient " + id + " : " + response.getStatusText());
+        }
+        if (e instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Patient " + id + " not received in time");
+        }
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Patient " + id + " not received", e);
+    }
+}
@@ -0,0 +1,174 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Adaptive concurrency limit of the routes.
+ */
+public class AdaptiveConcurrencyFilterTest {
+
+    private static final long MILLISECOND = 1_000_000L;
+
+    private ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        concurrencyLimitProperties = new ConcurrencyLimitProperties();
+        concurrencyLimitProperties.setInitialLimit(10);
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        concurrencyLimitProperties = null;
+    }
+
+    @Nested
+    @Tag("AdaptiveConcurrencyLimiterTests")
+    @DisplayName("Tests for the AIMD limit")
+    class AdaptiveConcurrencyLimiterTests {
+
+        @Test
+        @Tag("AdaptiveConcurrencyLimiterTest")
+        @DisplayName("responses with the usual latency should grow the limit in use")
+        public void usualLatencyShouldGrowTheLimitInUse() {
+            //GIVEN
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+            //WHEN
+            IntStream.range(0, 100).forEach(i -> {
+                IntStream.range(0, 10).forEach(j -> limiter.tryAcquire());
+                IntStream.range(0, 10).forEach(j -> limiter.release(i * 10 * MILLISECOND, 10 * MILLISECOND, false));
+            });
+            //THEN
+            assertThat(limiter.getLimit()).isGreaterThan(20);
+            assertThat(limiter.getInFlight()).isZero();
+        }
+
+        @Test
+        @Tag("AdaptiveConcurrencyLimiterTest")
+        @DisplayName("an idle route should keep its limit")
+        public void idleRouteShouldKeepItsLimit() {
+            //GIVEN
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+            //WHEN
+            IntStream.range(0, 100).forEach(i -> {
+                limiter.tryAcquire();
+                limiter.release(i * 10 * MILLISECOND, 10 * MILLISECOND, false);
+            });
+            //THEN
+            assertThat(limiter.getLimit()).isEqualTo(10);
+        }
+
+        @Test
+        @Tag("AdaptiveConcurrencyLimiterTest")
+        @DisplayName("an idle route should keep its limit though its responses slow down")
+        public void idleRouteShouldKeepItsLimitThoughItsResponsesSlowDown() {
+            //GIVEN
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+            limiter.tryAcquire();
+            limiter.release(0, 10 * MILLISECOND, false);
+            //WHEN
+            IntStream.range(1, 100).forEach(i -> {
+                limiter.tryAcquire();
+                limiter.release(i * 500 * MILLISECOND, 500 * MILLISECOND, false);
+            });
+            //THEN
+            assertThat(limiter.getLimit()).isEqualTo(10);
+        }
+
+        @Test
+        @Tag("AdaptiveConcurrencyLimiterTest")
+        @DisplayName("a slow endpoint among fast ones should not cut the limit in use")
+        public void slowEndpointAmongFastOnesShouldNotCutTheLimit() {
+            //GIVEN
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+            //WHEN
+            IntStream.range(0, 100).forEach(i -> roundTrip(limiter, i * 500 * MILLISECOND,
+                    j -> j % 3 == 0 ? 500 * MILLISECOND : 10 * MILLISECOND, false));
+            //THEN
+            assertThat(limiter.getLimit()).isGreaterThan(10);
+        }
+
+        @Test
+        @Tag("AdaptiveConcurrencyLimiterTest")
+        @DisplayName("queueing responses of a route in use should cut the limit down to the minimum")
+        public void queueingResponsesShouldCutTheLimitDownToTheMinimum() {
+            //GIVEN
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+            roundTrip(limiter, 0, j -> 10 * MILLISECOND, false);
+            //WHEN
+            IntStream.range(1, 300).forEach(i -> roundTrip(limiter, i * 100 * MILLISECOND, j -> 100 * MILLISECOND, false));
+            //THEN
+            assertThat(limiter.getLimit()).isEqualTo(2);
+        }
+
+        @Test
+        @Tag("AdaptiveConcurrencyLimiterTest")
+        @DisplayName("failed responses should cut the limit once per round trip down to the minimum")
+        public void failedResponsesShouldCutTheLimitOncePerRoundTrip() {
+            //GIVEN
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+            limiter.tryAcquire();
+            limiter.release(0, 100 * MILLISECOND, false);
+            //WHEN
+            roundTrip(limiter, 100 * MILLISECOND, j -> 100 * MILLISECOND, true);
+            double afterOneRoundTrip = limiter.getLimit();
+            IntStream.range(2, 100).forEach(i -> {
+                limiter.tryAcquire();
+                limiter.release(i * 100 * MILLISECOND, 100 * MILLISECOND, true);
+            });
+            //THEN
+            assertThat(afterOneRoundTrip).isEqualTo(9);
+            assertThat(limiter.getLimit()).isEqualTo(2);
+        }
+
+        /**
+         * Routes as many requests as the limit allows, all answered at the same time
+         */
+        private void roundTrip(AdaptiveConcurrencyLimiter limiter, long now, IntToLongFunction latencyNanos, boolean dropped) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            IntStream.range(0, acquired).forEach(j -> limiter.release(now, latencyNanos.applyAsLong(j), dropped));
+        }
+    }
+
+    @Test
+    @Tag("AdaptiveConcurrencyFilterTest")
+    @DisplayName("requests beyond the limit should be shed with 503 and Retry-After")
+    public void requestsBeyondTheLimitShouldBeShed() {
+        //GIVEN
+        concurrencyLimitProperties.setInitialLimit(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(concurrencyLimitProperties, meterRegistry);
+        Sinks.Empty<Void> backend = Sinks.empty();
+        GatewayFilterChain chain = exchange -> backend.asMono();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/patients")), chain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/patients")), chain).subscribe();
+        MockServerWebExchange shed = MockServerWebExchange.from(MockServerHttpRequest.get("/patients"));
+        //WHEN
+        filter.filter(shed, chain).block();
+        backend.tryEmitEmpty();
+        MockServerWebExchange routed = MockServerWebExchange.from(MockServerHttpRequest.get("/patients"));
+        filter.filter(routed, exchange -> Mono.empty()).block();
+        //THEN
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(routed.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(meterRegistry.get("gateway.concurrency.rejected").tag("route", "none").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.concurrency.inflight").tag("route", "none").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,149 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rate limit and concurrency limit of the endpoints of the gateway.
+ */
+public class AggregationProtectionFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitProperties concurrencyLimitProperties;
+    private AggregationProtectionFilter aggregationProtectionFilter;
+    private List<ServerWebExchange> handled;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimiterProperties rateLimiterProperties = new RateLimiterProperties();
+        rateLimiterProperties.setReplenishRate(1);
+        rateLimiterProperties.setBurstCapacity(4);
+        concurrencyLimitProperties = new ConcurrencyLimitProperties();
+        concurrencyLimitProperties.setInitialLimit(10);
+        aggregationProtectionFilter = new AggregationProtectionFilter(
+                new ClientKeyResolver(rateLimiterProperties),
+                new InMemoryRateLimiter(rateLimiterProperties, null),
+                new AdaptiveConcurrencyFilter(concurrencyLimitProperties, meterRegistry));
+        handled = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        meterRegistry = null;
+        concurrencyLimitProperties = null;
+        aggregationProtectionFilter = null;
+        handled = null;
+    }
+
+    private final WebFilterChain chain = exchange -> {
+        handled.add(exchange);
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    private ServerWebExchange exchange(String path, String username) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 50000)));
+        return exchange.mutate()
+                .principal(Mono.just(UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList("USER"))))
+                .build();
+    }
+
+    private double limit() {
+        return meterRegistry.get("gateway.concurrency.limit").tag("route", AggregationProtectionFilter.AGGREGATION_ID).gauge().value();
+    }
+
+    @Test
+    @Tag("AggregationProtectionFilterTest")
+    @DisplayName("a client should be answered 429 once its burst is spent")
+    public void clientShouldBeAnsweredTooManyRequestsOnceItsBurstIsSpent() {
+        //GIVEN
+        IntStream.range(0, 4).forEach(i -> aggregationProtectionFilter.filter(exchange("/api/patients/1/full", "user"), chain).block());
+        ServerWebExchange exchange = exchange("/api/patients/1/full", "user");
+        //WHEN
+        aggregationProtectionFilter.filter(exchange, chain).block();
+        //THEN
+        assertThat(handled).hasSize(4);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst(InMemoryRateLimiter.REMAINING_HEADER)).isEqualTo("0");
+    }
+
+    @Test
+    @Tag("AggregationProtectionFilterTest")
+    @DisplayName("frontService should not be rate limited, its users being limited on the front route")
+    public void frontServiceShouldNotBeRateLimited() {
+        //GIVEN
+        List<ServerWebExchange> exchanges = IntStream.range(0, 10).mapToObj(i -> exchange("/api/patients/1/full", "frontService")).toList();
+        //WHEN
+        exchanges.forEach(exchange -> aggregationProtectionFilter.filter(exchange, chain).block());
+        //THEN
+        assertThat(handled).hasSize(10);
+        assertThat(exchanges).allSatisfy(exchange -> assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK));
+    }
+
+    @Test
+    @Tag("AggregationProtectionFilterTest")
+    @DisplayName("a request beyond the concurrency limit should be shed with 503 and Retry-After")
+    public void requestBeyondTheConcurrencyLimitShouldBeShed() {
+        //GIVEN
+        concurrencyLimitProperties.setInitialLimit(1);
+        Sinks.Empty<Void> pending = Sinks.empty();
+        aggregationProtectionFilter.filter(exchange("/api/patients/1/full", "frontService"), exchange -> pending.asMono()).subscribe();
+        ServerWebExchange exchange = exchange("/api/patients/2/full", "frontService");
+        //WHEN
+        aggregationProtectionFilter.filter(exchange, chain).block();
+        pending.tryEmitEmpty();
+        //THEN
+        assertThat(handled).isEmpty();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    @Tag("AggregationProtectionFilterTest")
+    @DisplayName("an unknown patient should not cut the concurrency limit, a failed backend should")
+    public void unknownPatientShouldNotCutTheConcurrencyLimit() {
+        //GIVEN
+        WebFilterChain notFound = exchange -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        WebFilterChain badGateway = exchange -> Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY));
+        //WHEN
+        aggregationProtectionFilter.filter(exchange("/api/patients/9/full", "frontService"), notFound).onErrorComplete().block();
+        double afterNotFound = limit();
+        aggregationProtectionFilter.filter(exchange("/api/patients/1/full", "frontService"), badGateway).onErrorComplete().block();
+        //THEN
+        assertThat(afterNotFound).isEqualTo(10);
+        assertThat(limit()).isLessThan(10);
+    }
+
+    @Test
+    @Tag("AggregationProtectionFilterTest")
+    @DisplayName("a request out of /api/** should be left to the filters of its route")
+    public void requestOutOfApiShouldBeLeftToTheFiltersOfItsRoute() {
+        //GIVEN
+        List<ServerWebExchange> exchanges = IntStream.range(0, 10).mapToObj(i -> exchange("/patients/1", "user")).toList();
+        //WHEN
+        exchanges.forEach(exchange -> aggregationProtectionFilter.filter(exchange, chain).block());
+        //THEN
+        assertThat(handled).hasSize(10);
+        assertThat(meterRegistry.find("gateway.concurrency.limit").gauges()).isEmpty();
+    }
+}
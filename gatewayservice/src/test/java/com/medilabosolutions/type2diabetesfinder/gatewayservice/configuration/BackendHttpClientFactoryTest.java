@@ -0,0 +1,95 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.junit.jupiter.api.*;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Connections opened by the HTTP/1.1 HttpClient of the gateway and by the h2c HttpClient
+ * for concurrent requests to a local h2c capable backend.
+ */
+public class BackendHttpClientFactoryTest {
+
+    private static final int CONCURRENT_REQUESTS = 50;
+
+    private DisposableServer backend;
+    private AtomicInteger connections;
+    private HttpClientProperties properties;
+    private ServerProperties serverProperties;
+    private HttpClientSslConfigurer sslConfigurer;
+    private BackendHttp2Properties backendHttp2Properties;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        connections = new AtomicInteger();
+        backend = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connections.incrementAndGet())
+                .handle((request, response) -> response.sendString(Mono.delay(Duration.ofMillis(100)).thenReturn(request.protocol())))
+                .bindNow();
+        properties = new HttpClientProperties();
+        serverProperties = new ServerProperties();
+        sslConfigurer = new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry());
+        backendHttp2Properties = new BackendHttp2Properties();
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        backend.disposeNow();
+        backend = null;
+        connections = null;
+        properties = null;
+        serverProperties = null;
+        sslConfigurer = null;
+        backendHttp2Properties = null;
+    }
+
+    /**
+     * @return the protocols of the responses to CONCURRENT_REQUESTS requests sent at once
+     */
+    private List<String> sendConcurrently(HttpClient httpClient) {
+        return Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> httpClient.get()
+                        .uri("http://localhost:" + backend.port() + "/patients/" + i)
+                        .responseContent().aggregate().asString(), CONCURRENT_REQUESTS)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @Tag("BackendHttpClientFactoryTest")
+    @DisplayName("h2c should multiplex concurrent requests over maxConnections when HTTP/1.1 opens a connection per concurrent request")
+    public void h2cShouldMultiplexRequestsOverMaxConnections() throws Exception {
+        //GIVEN
+        HttpClientFactory http11Factory = new HttpClientFactory(properties, serverProperties, sslConfigurer, List.of());
+        http11Factory.afterPropertiesSet();
+        BackendHttpClientFactory h2cFactory = new BackendHttpClientFactory(properties, serverProperties, sslConfigurer, List.of(), backendHttp2Properties);
+        h2cFactory.afterPropertiesSet();
+        //WHEN
+        List<String> http11Protocols = sendConcurrently(http11Factory.getObject());
+        int http11Connections = connections.getAndSet(0);
+        List<String> h2cProtocols = sendConcurrently(h2cFactory.getObject());
+        int h2cConnections = connections.get();
+        //THEN
+        assertThat(http11Protocols).hasSize(CONCURRENT_REQUESTS).containsOnly("HTTP/1.1");
+        assertThat(h2cProtocols).hasSize(CONCURRENT_REQUESTS).containsOnly("HTTP/2.0");
+        assertThat(http11Connections).isGreaterThan(2 * backendHttp2Properties.getMaxConnections());
+        assertThat(h2cConnections).isLessThanOrEqualTo(backendHttp2Properties.getMaxConnections());
+    }
+}
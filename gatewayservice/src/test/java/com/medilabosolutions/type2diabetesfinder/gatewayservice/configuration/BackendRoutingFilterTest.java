@@ -0,0 +1,128 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing with h2c of the services which accept it only, against a local HTTP/1.1 only front and an h2c capable patient backend.
+ */
+public class BackendRoutingFilterTest {
+
+    private static DisposableServer frontBackend;
+    private static DisposableServer patientBackend;
+
+    private HttpClientProperties properties;
+    private BackendHttp2Properties backendHttp2Properties;
+    private NettyWriteResponseFilter nettyWriteResponseFilter;
+
+    @BeforeAll
+    public static void setUpForAllTests() {
+        frontBackend = backend(HttpProtocol.HTTP11);
+        patientBackend = backend(HttpProtocol.H2C, HttpProtocol.HTTP11);
+    }
+
+    @AfterAll
+    public static void unSetForAllTests() {
+        frontBackend.disposeNow();
+        patientBackend.disposeNow();
+        frontBackend = null;
+        patientBackend = null;
+    }
+
+    private static DisposableServer backend(HttpProtocol... protocols) {
+        return HttpServer.create()
+                .port(0)
+                .protocol(protocols)
+                .handle((request, response) -> response.sendString(Mono.just(request.protocol())))
+                .bindNow();
+    }
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        properties = new HttpClientProperties();
+        backendHttp2Properties = new BackendHttp2Properties();
+        nettyWriteResponseFilter = new NettyWriteResponseFilter(List.of());
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        properties = null;
+        backendHttp2Properties = null;
+        nettyWriteResponseFilter = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BackendRoutingFilter backendRoutingFilter() throws Exception {
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable()).thenReturn(List.of());
+        ServerProperties serverProperties = new ServerProperties();
+        HttpClientSslConfigurer sslConfigurer = new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry());
+        return new BackendHttpClientConfig().backendRoutingFilter(HttpClient.create(), headersFilters, properties, serverProperties,
+                sslConfigurer, List.of(), backendHttp2Properties);
+    }
+
+    /**
+     * Routes a request as the gateway does once the load balancer has chosen the instance
+     *
+     * @return the protocol the backend received the request with
+     */
+    private String route(BackendRoutingFilter backendRoutingFilter, String path, String routeUri, DisposableServer backend) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(path).uri(routeUri).predicate(serverWebExchange -> true).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, URI.create("http://localhost:" + backend.port() + path));
+        nettyWriteResponseFilter.filter(exchange, serverWebExchange -> backendRoutingFilter.filter(serverWebExchange, e -> Mono.empty())).block();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Test
+    @Tag("BackendRoutingFilterTest")
+    @DisplayName("with h2c enabled, a front request should still be routed over HTTP/1.1 and a patient request over h2c")
+    public void frontShouldBeRoutedOverHttp11WhenH2cIsEnabled() throws Exception {
+        //GIVEN
+        backendHttp2Properties.setEnabled(true);
+        BackendRoutingFilter backendRoutingFilter = backendRoutingFilter();
+        //WHEN
+        String frontProtocol = route(backendRoutingFilter, "/front/home", "lb://frontService", frontBackend);
+        String patientProtocol = route(backendRoutingFilter, "/patients/1", "lb://patientService", patientBackend);
+        //THEN
+        assertThat(frontProtocol).isEqualTo("HTTP/1.1");
+        assertThat(patientProtocol).isEqualTo("HTTP/2.0");
+    }
+
+    @Test
+    @Tag("BackendRoutingFilterTest")
+    @DisplayName("with h2c disabled, every request should be routed over HTTP/1.1")
+    public void everyRequestShouldBeRoutedOverHttp11ByDefault() throws Exception {
+        //GIVEN
+        BackendRoutingFilter backendRoutingFilter = backendRoutingFilter();
+        //WHEN
+        String patientProtocol = route(backendRoutingFilter, "/patients/1", "lb://patientService", patientBackend);
+        //THEN
+        assertThat(patientProtocol).isEqualTo("HTTP/1.1");
+    }
+}
@@ -0,0 +1,71 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.junit.jupiter.api.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys of the rate limiter buckets.
+ */
+public class ClientKeyResolverTest {
+
+    private ClientKeyResolver clientKeyResolver;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        clientKeyResolver = new ClientKeyResolver(new RateLimiterProperties());
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        clientKeyResolver = null;
+    }
+
+    private ServerWebExchange exchange(String username, String clientAddress) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/front/home")
+                .remoteAddress(new InetSocketAddress(clientAddress, 50000))
+                .header("X-Forwarded-For", "10.0.0.99");
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        return username == null ? exchange : exchange.mutate()
+                .principal(Mono.just(UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList("USER"))))
+                .build();
+    }
+
+    @Test
+    @Tag("ClientKeyResolverTest")
+    @DisplayName("clients sharing an account should have their own key, from the address of their connection")
+    public void clientsSharingAnAccountShouldHaveTheirOwnKey() {
+        //GIVEN
+        ServerWebExchange first = exchange("user", "10.0.0.1");
+        ServerWebExchange second = exchange("user", "10.0.0.2");
+        //WHEN
+        String firstKey = clientKeyResolver.resolve(first).block();
+        String secondKey = clientKeyResolver.resolve(second).block();
+        //THEN
+        assertThat(firstKey).isEqualTo("user@10.0.0.1");
+        assertThat(secondKey).isEqualTo("user@10.0.0.2");
+    }
+
+    @Test
+    @Tag("ClientKeyResolverTest")
+    @DisplayName("the internal front principal and anonymous requests should get no key")
+    public void frontPrincipalAndAnonymousRequestsShouldGetNoKey() {
+        //GIVEN
+        ServerWebExchange front = exchange("frontService", "10.0.0.3");
+        ServerWebExchange anonymous = exchange(null, "10.0.0.1");
+        //WHEN
+        String frontKey = clientKeyResolver.resolve(front).block();
+        String anonymousKey = clientKeyResolver.resolve(anonymous).block();
+        //THEN
+        assertThat(frontKey).isNull();
+        assertThat(anonymousKey).isNull();
+    }
+}
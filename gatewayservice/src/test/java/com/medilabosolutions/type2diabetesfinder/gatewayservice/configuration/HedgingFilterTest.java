@@ -0,0 +1,355 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hedging of GET requests to a second instance, against a slow and a fast local backend.
+ */
+public class HedgingFilterTest {
+
+    private static final long SLOW_LATENCY = 300;
+    // above the 256 KB the WebClient codecs buffer by default
+    private static final int LARGE_BODY_SIZE = 1024 * 1024;
+
+    private static DisposableServer slowServer;
+    private static DisposableServer fastServer;
+    private static AtomicInteger slowRequests;
+    private static AtomicInteger fastRequests;
+
+    private HedgingProperties hedgingProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+    private ReactiveLoadBalancer<ServiceInstance> loadBalancer;
+    @SuppressWarnings("rawtypes")
+    private LoadBalancerLifecycle lifecycle;
+    private HedgingFilter hedgingFilter;
+    private NettyWriteResponseFilter nettyWriteResponseFilter;
+    private NettyRoutingFilter nettyRoutingFilter;
+
+    @BeforeAll
+    public static void setUpForAllTests() {
+        slowRequests = new AtomicInteger();
+        fastRequests = new AtomicInteger();
+        slowServer = backend("slow", SLOW_LATENCY, slowRequests);
+        fastServer = backend("fast", 10, fastRequests);
+    }
+
+    @AfterAll
+    public static void unSetForAllTests() {
+        slowServer.disposeNow();
+        fastServer.disposeNow();
+        slowServer = null;
+        fastServer = null;
+        slowRequests = null;
+        fastRequests = null;
+    }
+
+    private static DisposableServer backend(String name, long latency, AtomicInteger requests) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/patients/{id}", (request, response) -> {
+                    requests.incrementAndGet();
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.delay(Duration.ofMillis(latency)).thenReturn("{\"id\":1,\"from\":\"" + name
+                                    + "\",\"filtered\":\"" + request.requestHeaders().get("X-Filtered") + "\"}"));
+                }).get("/notes/patient/{id}", (request, response) -> {
+                    requests.incrementAndGet();
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.delay(Duration.ofMillis(latency))
+                                    .thenReturn("[{\"from\":\"" + name + "\",\"note\":\"" + "a".repeat(LARGE_BODY_SIZE) + "\"}]"));
+                }))
+                .bindNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setUpForEachTest() {
+        slowRequests.set(0);
+        fastRequests.set(0);
+        hedgingProperties = new HedgingProperties();
+        hedgingProperties.setEnabled(true);
+        hedgingProperties.setMinSamples(0);
+        hedgingProperties.setMinDelay(Duration.ofMillis(50));
+        hedgingProperties.setBudgetPercent(100);
+        meterRegistry = new SimpleMeterRegistry();
+        loadBalancerClientFactory = mock(LoadBalancerClientFactory.class);
+        loadBalancer = mock(ReactiveLoadBalancer.class);
+        ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+        when(supplier.get()).thenReturn(Flux.just(List.of(instance(slowServer), instance(fastServer))));
+        ObjectProvider<ServiceInstanceListSupplier> supplierProvider = mock(ObjectProvider.class);
+        when(supplierProvider.getIfAvailable()).thenReturn(supplier);
+        when(loadBalancerClientFactory.getInstance("patientService")).thenReturn(loadBalancer);
+        when(loadBalancerClientFactory.getLazyProvider("patientService", ServiceInstanceListSupplier.class)).thenReturn(supplierProvider);
+        lifecycle = mock(LoadBalancerLifecycle.class);
+        when(lifecycle.supports(any(), any(), any())).thenReturn(true);
+        when(loadBalancerClientFactory.getInstances(eq("patientService"), any(Class.class))).thenReturn(Map.of("lifecycle", lifecycle));
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        HttpHeadersFilter filtered = (headers, exchange) -> {
+            HttpHeaders filteredHeaders = new HttpHeaders();
+            filteredHeaders.putAll(headers);
+            filteredHeaders.set("X-Filtered", "yes");
+            return filteredHeaders;
+        };
+        when(headersFilters.getIfAvailable()).thenReturn(List.of(filtered));
+        hedgingFilter = new HedgingFilter(hedgingProperties, loadBalancerClientFactory, meterRegistry);
+        nettyWriteResponseFilter = new NettyWriteResponseFilter(List.of());
+        nettyRoutingFilter = new NettyRoutingFilter(HttpClient.create(), headersFilters, new HttpClientProperties());
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        hedgingProperties = null;
+        meterRegistry = null;
+        loadBalancerClientFactory = null;
+        loadBalancer = null;
+        lifecycle = null;
+        hedgingFilter = null;
+        nettyWriteResponseFilter = null;
+        nettyRoutingFilter = null;
+    }
+
+    private static ServiceInstance instance(DisposableServer server) {
+        return new DefaultServiceInstance(server.host() + ":" + server.port(), "patientService", server.host(), server.port(), false);
+    }
+
+    /**
+     * The rest of the routing filters, down to NettyRoutingFilter which leaves the body to NettyWriteResponseFilter
+     */
+    private final GatewayFilterChain chain = exchange -> nettyRoutingFilter.filter(exchange, serverWebExchange -> Mono.empty());
+
+    /**
+     * Runs the hedging filter inside NettyWriteResponseFilter, which writes the body of the response as in the gateway
+     */
+    private void filter(MockServerWebExchange exchange) {
+        nettyWriteResponseFilter.filter(exchange, serverWebExchange -> hedgingFilter.filter(serverWebExchange, chain)).block();
+    }
+
+    private MockServerWebExchange exchange() {
+        return exchange("/patients/1");
+    }
+
+    private MockServerWebExchange exchange(String path) {
+        return exchange(path, Map.of());
+    }
+
+    private MockServerWebExchange exchange(String path, Map<String, Object> routeMetadata) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async().id("patientservice")
+                .uri("lb://patientService").predicate(serverWebExchange -> true).metadata(routeMetadata).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, URI.create("lb://patientService" + path));
+        return exchange;
+    }
+
+    private void givenPrimary(DisposableServer server) {
+        givenPrimary(instance(server));
+    }
+
+    private void givenPrimary(ServiceInstance instance) {
+        when(loadBalancer.choose(any())).thenAnswer(invocation -> Mono.just(new DefaultResponse(instance)));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.hedging").tag("route", "patientservice").tag("result", result).counter().count();
+    }
+
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("a slow primary should be hedged to the other instance which answers first")
+    public void slowPrimaryShouldBeHedgedToOtherInstance() {
+        //GIVEN
+        givenPrimary(slowServer);
+        MockServerWebExchange exchange = exchange();
+        //WHEN
+        long start = System.nanoTime();
+        filter(exchange);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        //THEN
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("\"from\":\"fast\"").contains("\"filtered\":\"yes\"");
+        assertThat(exchange.getResponse().getHeaders().getContentType()).hasToString("application/json");
+        assertThat(elapsed).isLessThan(SLOW_LATENCY);
+        assertThat(slowRequests.get()).isOne();
+        assertThat(fastRequests.get()).isOne();
+        assertThat(count("hedge")).isEqualTo(1);
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("the cancelled slow primary should be measured for at least the time it ran")
+    public void cancelledPrimaryShouldBeMeasuredAsLowerBound() {
+        //GIVEN
+        givenPrimary(slowServer);
+        MockServerWebExchange exchange = exchange();
+        //WHEN
+        filter(exchange);
+        //THEN
+        Timer latency = meterRegistry.get("gateway.hedging.latency").tag("route", "patientservice").timer();
+        assertThat(latency.count()).isEqualTo(2);
+        assertThat(latency.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(hedgingProperties.getMinDelay().toMillis());
+        verify(lifecycle, times(2)).onStartRequest(any(), any());
+        verify(lifecycle).onComplete(argThat(context -> ((CompletionContext<Object, ServiceInstance, Object>) context).status() == CompletionContext.Status.SUCCESS));
+        verify(lifecycle).onComplete(argThat(context -> ((CompletionContext<Object, ServiceInstance, Object>) context).status() == CompletionContext.Status.DISCARD
+                && ((CompletionContext<Object, ServiceInstance, Object>) context).getLoadBalancerResponse().getServer().getPort() == slowServer.port()));
+    }
+
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("a large hedged response should be streamed through, not buffered up to a codec limit")
+    public void largeHedgedResponseShouldBeStreamedThrough() {
+        //GIVEN
+        givenPrimary(slowServer);
+        MockServerWebExchange exchange = exchange("/notes/patient/1");
+        //WHEN
+        filter(exchange);
+        //THEN
+        String body = exchange.getResponse().getBodyAsString().block();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body).startsWith("[{\"from\":\"fast\"");
+        assertThat(body).hasSizeGreaterThan(LARGE_BODY_SIZE);
+        assertThat(count("hedge")).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("a fast primary should not be hedged")
+    public void fastPrimaryShouldNotBeHedged() {
+        //GIVEN
+        givenPrimary(fastServer);
+        MockServerWebExchange exchange = exchange();
+        //WHEN
+        filter(exchange);
+        //THEN
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("fast");
+        assertThat(slowRequests.get()).isZero();
+        assertThat(fastRequests.get()).isOne();
+        assertThat(count("unhedged")).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("a slow primary should not be hedged when the budget is spent")
+    public void slowPrimaryShouldNotBeHedgedWhenBudgetIsSpent() {
+        //GIVEN
+        // a request saves half a token, not enough for a hedge
+        hedgingProperties.setBudgetPercent(50);
+        givenPrimary(slowServer);
+        MockServerWebExchange exchange = exchange();
+        //WHEN
+        long start = System.nanoTime();
+        filter(exchange);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        //THEN
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("slow");
+        assertThat(elapsed).isGreaterThanOrEqualTo(SLOW_LATENCY);
+        assertThat(slowRequests.get()).isOne();
+        assertThat(fastRequests.get()).isZero();
+        assertThat(count("unhedged")).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("a failed primary should fail the request at once, without waiting for the hedge delay")
+    public void failedPrimaryShouldFailTheRequestAtOnce() {
+        //GIVEN
+        hedgingProperties.setMinDelay(Duration.ofSeconds(2));
+        DisposableServer closedServer = HttpServer.create().port(0).bindNow();
+        ServiceInstance closedInstance = instance(closedServer);
+        closedServer.disposeNow();
+        givenPrimary(closedInstance);
+        MockServerWebExchange exchange = exchange();
+        //WHEN
+        long start = System.nanoTime();
+        Throwable thrown = catchThrowable(() -> filter(exchange));
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        //THEN
+        assertThat(Exceptions.unwrap(thrown)).isInstanceOf(ConnectException.class);
+        assertThat(elapsed).isLessThan(hedgingProperties.getMinDelay().toMillis());
+        assertThat(fastRequests.get()).isZero();
+        verify(lifecycle).onComplete(argThat(context -> ((CompletionContext<Object, ServiceInstance, Object>) context).status() == CompletionContext.Status.FAILED));
+    }
+
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("an attempt should be timed out after the response timeout of its route")
+    public void attemptShouldBeTimedOutAfterTheResponseTimeoutOfItsRoute() {
+        //GIVEN
+        hedgingProperties.setMinDelay(Duration.ofSeconds(2));
+        givenPrimary(slowServer);
+        MockServerWebExchange exchange = exchange("/patients/1", Map.of(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, 100));
+        //WHEN
+        Throwable thrown = catchThrowable(() -> filter(exchange));
+        //THEN
+        assertThat(thrown).isInstanceOf(ResponseStatusException.class);
+        assertThat(((ResponseStatusException) thrown).getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(fastRequests.get()).isZero();
+    }
+
+    @Test
+    @Tag("HedgingFilterTest")
+    @DisplayName("a request not matching the hedged paths should go down the chain")
+    public void requestNotMatchingPathsShouldGoDownTheChain() {
+        //GIVEN
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/patients"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, URI.create("lb://patientService/patients"));
+        AtomicInteger chained = new AtomicInteger();
+        //WHEN
+        hedgingFilter.filter(exchange, serverWebExchange -> {
+            chained.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        //THEN
+        assertThat(chained.get()).isOne();
+        assertThat(slowRequests.get() + fastRequests.get()).isZero();
+    }
+}
@@ -0,0 +1,110 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token buckets of the in-memory rate limiter.
+ */
+public class InMemoryRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimiterProperties rateLimiterProperties;
+    private InMemoryRateLimiter inMemoryRateLimiter;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        rateLimiterProperties = new RateLimiterProperties();
+        rateLimiterProperties.setReplenishRate(2);
+        rateLimiterProperties.setBurstCapacity(4);
+        inMemoryRateLimiter = new InMemoryRateLimiter(rateLimiterProperties, null);
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        rateLimiterProperties = null;
+        inMemoryRateLimiter = null;
+    }
+
+    @Test
+    @Tag("InMemoryRateLimiterTest")
+    @DisplayName("a user should be allowed a burst then be limited to the replenish rate")
+    public void userShouldBeAllowedABurstThenBeLimitedToTheReplenishRate() {
+        //GIVEN
+        long now = System.nanoTime();
+        //WHEN
+        long allowedInBurst = IntStream.range(0, 10).filter(i -> inMemoryRateLimiter.isAllowed("patients", "user", now).isAllowed()).count();
+        Response afterHalfASecond = inMemoryRateLimiter.isAllowed("patients", "user", now + SECOND / 2);
+        Response denied = inMemoryRateLimiter.isAllowed("patients", "user", now + SECOND / 2);
+        //THEN
+        assertThat(allowedInBurst).isEqualTo(4);
+        assertThat(afterHalfASecond.isAllowed()).isTrue();
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getHeaders())
+                .containsEntry(InMemoryRateLimiter.REMAINING_HEADER, "0")
+                .containsEntry(InMemoryRateLimiter.BURST_CAPACITY_HEADER, "4")
+                .containsEntry(InMemoryRateLimiter.REPLENISH_RATE_HEADER, "2");
+    }
+
+    @Test
+    @Tag("InMemoryRateLimiterTest")
+    @DisplayName("users and routes should have their own buckets")
+    public void usersAndRoutesShouldHaveTheirOwnBuckets() {
+        //GIVEN
+        long now = System.nanoTime();
+        IntStream.range(0, 4).forEach(i -> inMemoryRateLimiter.isAllowed("patients", "user", now));
+        //WHEN
+        //THEN
+        assertThat(inMemoryRateLimiter.isAllowed("patients", "user", now).isAllowed()).isFalse();
+        assertThat(inMemoryRateLimiter.isAllowed("patients", "other", now).isAllowed()).isTrue();
+        assertThat(inMemoryRateLimiter.isAllowed("notes", "user", now).isAllowed()).isTrue();
+    }
+
+    @Test
+    @Tag("InMemoryRateLimiterTest")
+    @DisplayName("a route with its own limits should not use the default ones")
+    public void routeWithItsOwnLimitsShouldNotUseTheDefaultOnes() {
+        //GIVEN
+        InMemoryRateLimiter.Config config = new InMemoryRateLimiter.Config();
+        config.setReplenishRate(1);
+        config.setBurstCapacity(1);
+        inMemoryRateLimiter.getConfig().put("notes", config);
+        long now = System.nanoTime();
+        //WHEN
+        //THEN
+        assertThat(inMemoryRateLimiter.isAllowed("notes", "user", now).isAllowed()).isTrue();
+        assertThat(inMemoryRateLimiter.isAllowed("notes", "user", now).isAllowed()).isFalse();
+    }
+
+    @Test
+    @Tag("InMemoryRateLimiterTest")
+    @DisplayName("concurrent requests should never take more tokens than the bucket holds")
+    public void concurrentRequestsShouldNeverTakeMoreTokensThanTheBucketHolds() throws InterruptedException {
+        //GIVEN
+        rateLimiterProperties.setReplenishRate(1);
+        rateLimiterProperties.setBurstCapacity(100);
+        inMemoryRateLimiter = new InMemoryRateLimiter(rateLimiterProperties, null);
+        long now = System.nanoTime();
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        //WHEN
+        IntStream.range(0, 1000).forEach(i -> executor.execute(() -> {
+            if (inMemoryRateLimiter.isAllowed("patients", "user", now).isAllowed()) {
+                allowed.incrementAndGet();
+            }
+        }));
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        //THEN
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+}
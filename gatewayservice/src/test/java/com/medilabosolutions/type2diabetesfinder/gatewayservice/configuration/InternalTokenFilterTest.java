@@ -0,0 +1,100 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Internal token minted by the gateway for the requests it routes.
+ */
+public class InternalTokenFilterTest {
+
+    private InternalTokenProperties internalTokenProperties;
+    private InternalTokenSigner internalTokenSigner;
+    private AtomicReference<ServerWebExchange> routed;
+    private GatewayFilterChain chain;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        internalTokenProperties = new InternalTokenProperties();
+        internalTokenProperties.setSecret("internal-token-test-secret");
+        internalTokenSigner = new InternalTokenSigner(internalTokenProperties);
+        routed = new AtomicReference<>();
+        chain = exchange -> {
+            routed.set(exchange);
+            return Mono.empty();
+        };
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        internalTokenProperties = null;
+        internalTokenSigner = null;
+        routed = null;
+        chain = null;
+    }
+
+    private ServerWebExchange exchange(Authentication authentication) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/patients")
+                .header(HttpHeaders.AUTHORIZATION, "Basic dXNlcjp1c2Vy")
+                .header("X-Internal-Auth", "forged"));
+        return authentication == null ? exchange : exchange.mutate().principal(Mono.just(authentication)).build();
+    }
+
+    @Test
+    @Tag("InternalTokenFilterTest")
+    @DisplayName("authenticated request should be routed with a signed token instead of its credentials")
+    public void authenticatedRequestShouldBeRoutedWithASignedTokenInsteadOfItsCredentials() {
+        //GIVEN
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("user", null, AuthorityUtils.createAuthorityList("USER"));
+        //WHEN
+        new InternalTokenFilter(internalTokenProperties, internalTokenSigner).filter(exchange(authentication), chain).block();
+        //THEN
+        HttpHeaders headers = routed.get().getRequest().getHeaders();
+        assertThat(headers.containsKey(HttpHeaders.AUTHORIZATION)).isFalse();
+        Authentication routedAuthentication = new InternalTokenVerifier(internalTokenProperties).verify(headers.getFirst("X-Internal-Auth"), Instant.now()).orElseThrow();
+        assertThat(routedAuthentication.getName()).isEqualTo("user");
+        assertThat(AuthorityUtils.authorityListToSet(routedAuthentication.getAuthorities())).containsExactly("USER");
+        assertThat(new InternalTokenVerifier(internalTokenProperties).verify(headers.getFirst("X-Internal-Auth"), Instant.now().plusSeconds(30))).isEmpty();
+    }
+
+    @Test
+    @Tag("InternalTokenFilterTest")
+    @DisplayName("anonymous request should be routed without the token sent by the client")
+    public void anonymousRequestShouldBeRoutedWithoutTheTokenSentByTheClient() {
+        //GIVEN
+        //WHEN
+        new InternalTokenFilter(internalTokenProperties, internalTokenSigner).filter(exchange(null), chain).block();
+        //THEN
+        HttpHeaders headers = routed.get().getRequest().getHeaders();
+        assertThat(headers.containsKey("X-Internal-Auth")).isFalse();
+        assertThat(headers.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Basic dXNlcjp1c2Vy");
+    }
+
+    @Test
+    @Tag("InternalTokenFilterTest")
+    @DisplayName("without secret the request should be routed with its own credentials")
+    public void withoutSecretTheRequestShouldBeRoutedWithItsOwnCredentials() {
+        //GIVEN
+        InternalTokenProperties withoutSecret = new InternalTokenProperties();
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("user", null, AuthorityUtils.createAuthorityList("USER"));
+        //WHEN
+        new InternalTokenFilter(withoutSecret, new InternalTokenSigner(withoutSecret)).filter(exchange(authentication), chain).block();
+        //THEN
+        HttpHeaders headers = routed.get().getRequest().getHeaders();
+        assertThat(headers.containsKey("X-Internal-Auth")).isFalse();
+        assertThat(headers.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Basic dXNlcjp1c2Vy");
+    }
+}
@@ -0,0 +1,60 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Checks the internal tokens routed by the gateway as patientService and noteService do (their InternalTokenVerifier).
+ */
+public class InternalTokenVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Mac mac;
+
+    public InternalTokenVerifier(InternalTokenProperties internalTokenProperties) {
+        try {
+            mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(internalTokenProperties.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param token the token received
+     * @param now   the current time
+     * @return the authentication of the user it carries, empty if it is malformed, forged or expired
+     */
+    public Optional<UsernamePasswordAuthenticationToken> verify(String token, Instant now) {
+        int dot = token.lastIndexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+        try {
+            String encodedPayload = token.substring(0, dot);
+            byte[] signature = mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(signature, DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            String[] claims = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split("\n", -1);
+            if (claims.length != 3 || Long.parseLong(claims[2]) <= now.getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(UsernamePasswordAuthenticationToken.authenticated(
+                    claims[0], null, AuthorityUtils.commaSeparatedStringToAuthorityList(claims[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A 1 GB export streamed through the gateway cache and single flight filters with flat memory.
+ * <p>
+ * Run in the integration-test phase : the unit tests check with a small export that the body streams chunk by chunk,
+ * these ones measure the heap while 1 GB goes through.
+ */
+public class LargeExportStreamingIT {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LargeStreamedBody export;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        export = new LargeStreamedBody(LargeStreamedBody.EXPORT_CHUNK_SIZE, LargeStreamedBody.EXPORT_CHUNKS);
+        System.gc();
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        meterRegistry = null;
+        export = null;
+    }
+
+    private ServerWebExchange exchange(LargeStreamedBody.ClientResponse response) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/patients/export")).mutate()
+                .principal(Mono.just(UsernamePasswordAuthenticationToken.authenticated("user", null, AuthorityUtils.createAuthorityList("USER"))))
+                .response(response)
+                .build();
+    }
+
+    @Test
+    @Tag("LargeExportStreamingIT")
+    @DisplayName("a 1 GB export should stream through the ResponseCacheFilter with flat memory")
+    public void largeExportShouldStreamThroughTheResponseCacheFilterWithFlatMemory() {
+        //GIVEN
+        ResponseCacheFilter responseCacheFilter = new ResponseCacheFilter(new ResponseCache(new ResponseCacheProperties(), meterRegistry));
+        LargeStreamedBody.ClientResponse response = export.newClientResponse();
+        //WHEN
+        responseCacheFilter.filter(exchange(response), exchange -> {
+            exchange.getResponse().getHeaders().setCacheControl("max-age=10, s-maxage=10");
+            return export.writeTo(exchange.getResponse());
+        }).block();
+        //THEN
+        assertThat(response.getReceived()).isEqualTo(export.getSize());
+        assertThat(response.getHeapGrowth()).isLessThan(LargeStreamedBody.MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    @Tag("LargeExportStreamingIT")
+    @DisplayName("a 1 GB export should stream through the single flight leader with flat memory")
+    public void largeExportShouldStreamThroughTheSingleFlightLeaderWithFlatMemory() {
+        //GIVEN
+        SingleFlightFilter singleFlightFilter = new SingleFlightFilter(new SingleFlightProperties(), meterRegistry);
+        LargeStreamedBody.ClientResponse response = export.newClientResponse();
+        //WHEN
+        singleFlightFilter.filter(exchange(response), exchange -> export.writeTo(exchange.getResponse())).block();
+        //THEN
+        assertThat(response.getReceived()).isEqualTo(export.getSize());
+        assertThat(response.getHeapGrowth()).isLessThan(LargeStreamedBody.MAX_HEAP_GROWTH);
+    }
+}
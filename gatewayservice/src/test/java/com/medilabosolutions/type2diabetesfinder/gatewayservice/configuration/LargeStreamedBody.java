@@ -0,0 +1,130 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An NDJSON export streamed by a backend in chunks without Content-Length,
+ * and a client response releasing the chunks as it receives them, while sampling the heap used.
+ * The backend counts the chunks it has produced : a gateway aggregating the body would produce them all
+ * before the client receives the first one.
+ */
+class LargeStreamedBody {
+
+    // 4 MB in 1 KB chunks, larger than what the gateway captures, for the unit tests
+    static final int SMALL_CHUNK_SIZE = 1 << 10;
+    static final int SMALL_CHUNKS = 1 << 12;
+    // 1 GB in 64 KB chunks, for the memory measures of the integration tests
+    static final int EXPORT_CHUNK_SIZE = 64 << 10;
+    static final int EXPORT_CHUNKS = 1 << 14;
+    static final long MAX_HEAP_GROWTH = 128L << 20;
+
+    private final int chunkSize;
+    private final int chunks;
+    private final AtomicInteger produced = new AtomicInteger();
+
+    LargeStreamedBody(int chunkSize, int chunks) {
+        this.chunkSize = chunkSize;
+        this.chunks = chunks;
+    }
+
+    long getSize() {
+        return (long) chunkSize * chunks;
+    }
+
+    int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Writes the export to the response, as patientService would stream it
+     */
+    Mono<Void> writeTo(ServerHttpResponse response) {
+        byte[] line = "{\"id\":1,\"patId\":1,\"note\":\"Poids égal ou inférieur au poids recommandé\"}\n".getBytes(StandardCharsets.UTF_8);
+        byte[] chunk = new byte[chunkSize];
+        for (int i = 0; i < chunkSize; i += line.length) {
+            System.arraycopy(line, 0, chunk, i, Math.min(line.length, chunkSize - i));
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+        // the chunks wrap the same array : the heap grows only if the gateway aggregates them
+        return response.writeWith(Flux.range(0, chunks)
+                .map(i -> {
+                    produced.incrementAndGet();
+                    return DefaultDataBufferFactory.sharedInstance.wrap(chunk);
+                }));
+    }
+
+    /**
+     * @return the client side of an exchange
+     */
+    ClientResponse newClientResponse() {
+        return new ClientResponse();
+    }
+
+    /**
+     * Client side of an exchange
+     */
+    class ClientResponse extends ServerHttpResponseDecorator {
+
+        private final long baselineHeap;
+        private long received;
+        private long chunksReceived;
+        private int producedAtFirstChunk = -1;
+        private long peakHeap;
+
+        private ClientResponse() {
+            super(new MockServerHttpResponse());
+            baselineHeap = usedHeap();
+            peakHeap = baselineHeap;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (producedAtFirstChunk < 0) {
+                            producedAtFirstChunk = produced.get();
+                        }
+                        received += buffer.readableByteCount();
+                        if (++chunksReceived % 256 == 0) {
+                            peakHeap = Math.max(peakHeap, usedHeap());
+                        }
+                        DataBufferUtils.release(buffer);
+                    })
+                    .then();
+        }
+
+        long getReceived() {
+            return received;
+        }
+
+        /**
+         * @return the chunks produced by the backend when the first one reached the client
+         */
+        int getProducedAtFirstChunk() {
+            return producedAtFirstChunk;
+        }
+
+        long getHeapGrowth() {
+            return peakHeap - baselineHeap;
+        }
+
+        private static long usedHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency aware load balancing, simulated with local instances of which one is deliberately slowed down.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancerTest {
+
+    private static final int REQUESTS = 600;
+    private static final int CONCURRENCY = 12;
+    private static final List<ServiceInstance> INSTANCES = List.of(
+            new DefaultServiceInstance("fast1", "patientService", "localhost", 9001, false),
+            new DefaultServiceInstance("fast2", "patientService", "localhost", 9002, false),
+            new DefaultServiceInstance("slow", "patientService", "localhost", 9003, false));
+    private static final Map<Integer, Duration> LATENCIES = Map.of(
+            9001, Duration.ofMillis(5),
+            9002, Duration.ofMillis(5),
+            9003, Duration.ofMillis(100));
+
+    private ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private Map<Integer, Duration> instanceLatencies;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        instanceLatencies = new ConcurrentHashMap<>(LATENCIES);
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "patientService";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(INSTANCES);
+            }
+        };
+        supplierProvider = new StaticListableBeanFactory(Map.of("supplier", supplier)).getBeanProvider(ServiceInstanceListSupplier.class);
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        supplierProvider = null;
+        instanceLatencies = null;
+    }
+
+    /**
+     * Result of a simulation : requests received by the slow instance and latencies observed by the clients
+     */
+    private record Simulation(int slowRequests, List<Long> latencies) {
+        long percentile(double percentile) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+        }
+    }
+
+    /**
+     * Sends REQUESTS requests, CONCURRENCY at a time, through the load balancer to the simulated instances
+     */
+    private Simulation simulate(ReactorServiceInstanceLoadBalancer loadBalancer) {
+        AtomicInteger slowRequests = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        Flux.range(0, REQUESTS).flatMap(i -> {
+            Request<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+            return Mono.from(loadBalancer.choose(request)).flatMap(response -> {
+                if (loadBalancer instanceof PeakEwmaLoadBalancer lifecycle) {
+                    lifecycle.onStartRequest(request, response);
+                }
+                if (response.getServer().getPort() == 9003) {
+                    slowRequests.incrementAndGet();
+                }
+                long start = System.nanoTime();
+                return Mono.delay(instanceLatencies.get(response.getServer().getPort())).doOnNext(tick -> {
+                    latencies.add((System.nanoTime() - start) / 1_000_000);
+                    if (loadBalancer instanceof PeakEwmaLoadBalancer lifecycle) {
+                        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+                    }
+                });
+            });
+        }, CONCURRENCY).blockLast();
+        return new Simulation(slowRequests.get(), latencies);
+    }
+
+    /**
+     * Reports a request to an instance which ended with a status after a latency
+     */
+    private static void complete(PeakEwmaLoadBalancer peakEwmaLoadBalancer, ServiceInstance instance, CompletionContext.Status status, Duration latency) {
+        Request<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        peakEwmaLoadBalancer.onStartRequest(request, response);
+        ((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime() - latency.toNanos());
+        peakEwmaLoadBalancer.onComplete(new CompletionContext<>(status, request, response));
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("a slowed down instance should receive far fewer requests than with round robin, and not drag the p95 down")
+    public void slowedDownInstanceShouldBeLeftAside() {
+        //GIVEN
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", new PeakEwmaProperties());
+        RoundRobinLoadBalancer roundRobinLoadBalancer = new RoundRobinLoadBalancer(supplierProvider, "patientService");
+        //WHEN
+        Simulation peakEwma = simulate(peakEwmaLoadBalancer);
+        Simulation roundRobin = simulate(roundRobinLoadBalancer);
+        //THEN
+        log.info("Slow instance requests : peak EWMA {}, round robin {} of {}", peakEwma.slowRequests(), roundRobin.slowRequests(), REQUESTS);
+        log.info("p95 latency : peak EWMA {} ms, round robin {} ms", peakEwma.percentile(0.95), roundRobin.percentile(0.95));
+        assertThat(roundRobin.slowRequests()).isEqualTo(REQUESTS / 3);
+        assertThat(peakEwma.slowRequests()).isLessThan(REQUESTS / 20);
+        // the few requests exploring the slow instance before its first response stay out of the p95
+        assertThat(roundRobin.percentile(0.95)).isGreaterThanOrEqualTo(100);
+        assertThat(peakEwma.percentile(0.95)).isLessThan(50);
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("a slowed down instance should be drawn again once its latency has decayed below the one of a fast instance")
+    public void recoveredInstanceShouldBeDrawnAgain() throws InterruptedException {
+        //GIVEN
+        PeakEwmaProperties peakEwmaProperties = new PeakEwmaProperties();
+        peakEwmaProperties.setDecayTime(Duration.ofMillis(100));
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", peakEwmaProperties);
+        List<ServiceInstance> fastAndSlow = List.of(INSTANCES.get(0), INSTANCES.get(2));
+        complete(peakEwmaLoadBalancer, INSTANCES.get(2), CompletionContext.Status.SUCCESS, Duration.ofMillis(500));
+        complete(peakEwmaLoadBalancer, INSTANCES.get(0), CompletionContext.Status.SUCCESS, Duration.ofMillis(5));
+        Response<ServiceInstance> whileSlow = peakEwmaLoadBalancer.choose(fastAndSlow);
+        // 500 ms decay below 5 ms within 5 decayTime, longer pauses of the test only decay it further
+        Thread.sleep(5 * peakEwmaProperties.getDecayTime().toMillis());
+        complete(peakEwmaLoadBalancer, INSTANCES.get(0), CompletionContext.Status.SUCCESS, Duration.ofMillis(5));
+        //WHEN
+        Response<ServiceInstance> recovered = peakEwmaLoadBalancer.choose(fastAndSlow);
+        //THEN
+        assertThat(whileSlow.getServer().getPort()).isEqualTo(9001);
+        assertThat(recovered.getServer().getPort()).isEqualTo(9003);
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("a request discarded before its response should raise the latency of its instance to its duration")
+    public void discardedRequestShouldRaiseTheLatencyOfItsInstance() {
+        //GIVEN
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", new PeakEwmaProperties());
+        List<ServiceInstance> twoInstances = INSTANCES.subList(0, 2);
+        complete(peakEwmaLoadBalancer, INSTANCES.get(0), CompletionContext.Status.SUCCESS, Duration.ofMillis(5));
+        complete(peakEwmaLoadBalancer, INSTANCES.get(1), CompletionContext.Status.SUCCESS, Duration.ofMillis(5));
+        //WHEN
+        complete(peakEwmaLoadBalancer, INSTANCES.get(1), CompletionContext.Status.DISCARD, Duration.ofMillis(500));
+        //THEN
+        assertThat(IntStream.range(0, 20).map(i -> peakEwmaLoadBalancer.choose(twoInstances).getServer().getPort()))
+                .containsOnly(9001);
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("a request discarded sooner than the latency of its instance should not lower it")
+    public void discardedRequestShouldNotLowerTheLatencyOfItsInstance() {
+        //GIVEN
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", new PeakEwmaProperties());
+        List<ServiceInstance> twoInstances = INSTANCES.subList(0, 2);
+        complete(peakEwmaLoadBalancer, INSTANCES.get(0), CompletionContext.Status.SUCCESS, Duration.ofMillis(100));
+        complete(peakEwmaLoadBalancer, INSTANCES.get(1), CompletionContext.Status.SUCCESS, Duration.ofMillis(500));
+        //WHEN
+        complete(peakEwmaLoadBalancer, INSTANCES.get(1), CompletionContext.Status.DISCARD, Duration.ofMillis(1));
+        //THEN
+        assertThat(IntStream.range(0, 20).map(i -> peakEwmaLoadBalancer.choose(twoInstances).getServer().getPort()))
+                .containsOnly(9001);
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("a failed request should count as at least failureLatency")
+    public void failedRequestShouldCountAsAtLeastFailureLatency() {
+        //GIVEN
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", new PeakEwmaProperties());
+        List<ServiceInstance> twoInstances = INSTANCES.subList(0, 2);
+        complete(peakEwmaLoadBalancer, INSTANCES.get(0), CompletionContext.Status.SUCCESS, Duration.ofMillis(100));
+        //WHEN
+        complete(peakEwmaLoadBalancer, INSTANCES.get(1), CompletionContext.Status.FAILED, Duration.ofMillis(1));
+        //THEN
+        assertThat(IntStream.range(0, 20).map(i -> peakEwmaLoadBalancer.choose(twoInstances).getServer().getPort()))
+                .containsOnly(9001);
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("an instance with outstanding requests should be avoided while latencies are equal")
+    public void instanceWithOutstandingRequestsShouldBeAvoided() {
+        //GIVEN
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", new PeakEwmaProperties());
+        List<ServiceInstance> twoInstances = INSTANCES.subList(0, 2);
+        Response<ServiceInstance> busy = peakEwmaLoadBalancer.choose(twoInstances);
+        peakEwmaLoadBalancer.onStartRequest(new DefaultRequest<>(new DefaultRequestContext()), busy);
+        //WHEN
+        Response<ServiceInstance> chosen = peakEwmaLoadBalancer.choose(twoInstances);
+        //THEN
+        assertThat(chosen.getServer()).isNotEqualTo(busy.getServer());
+    }
+
+    @Test
+    @Tag("PeakEwmaLoadBalancerTest")
+    @DisplayName("no instance should give an empty response")
+    public void noInstanceShouldGiveAnEmptyResponse() {
+        //GIVEN
+        PeakEwmaLoadBalancer peakEwmaLoadBalancer = new PeakEwmaLoadBalancer(supplierProvider, "patientService", new PeakEwmaProperties());
+        //WHEN
+        //THEN
+        assertThat(peakEwmaLoadBalancer.choose(List.of()).hasServer()).isFalse();
+        assertThat(peakEwmaLoadBalancer.choose(INSTANCES.subList(2, 3)).getServer().getPort()).isEqualTo(9003);
+    }
+}
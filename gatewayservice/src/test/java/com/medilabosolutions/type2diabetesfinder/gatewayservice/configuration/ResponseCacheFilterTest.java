@@ -0,0 +1,262 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gateway cache of the GET responses : reuse per user, revalidation, invalidation and metrics.
+ */
+public class ResponseCacheFilterTest {
+
+    private static final String ETAG = "\"0123456789\"";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter responseCacheFilter;
+    private List<ServerWebExchange> routed;
+    private String backendCacheControl;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        responseCacheFilter = new ResponseCacheFilter(new ResponseCache(new ResponseCacheProperties(), meterRegistry));
+        routed = new ArrayList<>();
+        backendCacheControl = "max-age=10, s-maxage=10";
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        meterRegistry = null;
+        responseCacheFilter = null;
+        routed = null;
+        backendCacheControl = null;
+    }
+
+    /**
+     * Backend answering as patientService does : 304 to a matching If-None-Match, the patient with its ETag otherwise
+     */
+    private final GatewayFilterChain chain = exchange -> {
+        routed.add(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setCacheControl(backendCacheControl);
+        response.getHeaders().setETag(ETAG);
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().contains(ETAG)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.writeWith(Mono.empty());
+        }
+        if (!exchange.getRequest().getMethod().matches("GET")) {
+            response.setStatusCode(HttpStatus.OK);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(16);
+        return response.writeWith(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"id\":1,\"a\":\"b\"}".getBytes(StandardCharsets.UTF_8))));
+    };
+
+    private ServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String username) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        return username == null ? exchange : exchange.mutate()
+                .principal(Mono.just(UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList("USER"))))
+                .build();
+    }
+
+    private MockServerHttpResponse get(String path, String username) {
+        ServerWebExchange exchange = exchange(MockServerHttpRequest.get(path), username);
+        responseCacheFilter.filter(exchange, chain).block();
+        return (MockServerHttpResponse) exchange.getResponse();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.response.cache").tag("route", "none").tag("result", result).counter().count();
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a fresh response should be served from the cache to the same user")
+    public void freshResponseShouldBeServedFromTheCacheToTheSameUser() {
+        //GIVEN
+        get("/patients/1", "user");
+        //WHEN
+        MockServerHttpResponse response = get("/patients/1", "user");
+        //THEN
+        assertThat(routed).hasSize(1);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBodyAsString().block()).isEqualTo("{\"id\":1,\"a\":\"b\"}");
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+        assertThat(count("miss")).isEqualTo(1);
+        assertThat(count("hit")).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a response stored by the gateway should reach the client as private")
+    public void storedResponseShouldReachTheClientAsPrivate() {
+        //GIVEN
+        MockServerHttpResponse routedResponse = get("/patients/1", "user");
+        //WHEN
+        MockServerHttpResponse cachedResponse = get("/patients/1", "user");
+        //THEN
+        assertThat(routed).hasSize(1);
+        assertThat(routedResponse.getHeaders().getCacheControl()).isEqualTo("max-age=10, private");
+        assertThat(cachedResponse.getHeaders().getCacheControl()).isEqualTo("max-age=10, private");
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a response should never be served to another user")
+    public void responseShouldNeverBeServedToAnotherUser() {
+        //GIVEN
+        get("/patients/1", "user");
+        //WHEN
+        get("/patients/1", "other");
+        get("/patients/1", null);
+        //THEN
+        assertThat(routed).hasSize(3);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a write to the same resource should invalidate the cached responses")
+    public void writeToTheSameResourceShouldInvalidateTheCachedResponses() {
+        //GIVEN
+        get("/patients/1", "user");
+        get("/patients?pageNumber=0", "user");
+        //WHEN
+        responseCacheFilter.filter(exchange(MockServerHttpRequest.put("/patients"), "user"), chain).block();
+        get("/patients/1", "user");
+        get("/patients?pageNumber=0", "user");
+        //THEN
+        assertThat(routed).hasSize(5);
+        assertThat(count("miss")).isEqualTo(4);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a write to another resource should keep the cached responses")
+    public void writeToAnotherResourceShouldKeepTheCachedResponses() {
+        //GIVEN
+        get("/patients/1", "user");
+        //WHEN
+        responseCacheFilter.filter(exchange(MockServerHttpRequest.post("/notes"), "user"), chain).block();
+        get("/patients/1", "user");
+        //THEN
+        assertThat(routed).hasSize(2);
+        assertThat(count("hit")).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a no-store response should not be cached")
+    public void noStoreResponseShouldNotBeCached() {
+        //GIVEN
+        backendCacheControl = "no-cache, no-store, max-age=0, must-revalidate";
+        get("/patients/1", "user");
+        //WHEN
+        get("/patients/1", "user");
+        //THEN
+        assertThat(routed).hasSize(2);
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a private response should not be stored by the gateway, a shared cache")
+    public void privateResponseShouldNotBeCached() {
+        //GIVEN
+        backendCacheControl = "max-age=10, private";
+        get("/patients/1", "user");
+        //WHEN
+        MockServerHttpResponse response = get("/patients/1", "user");
+        //THEN
+        assertThat(routed).hasSize(2);
+        assertThat(count("miss")).isEqualTo(2);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=10, private");
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a stale response should be revalidated with its ETag and served from the cache")
+    public void staleResponseShouldBeRevalidatedWithItsETag() {
+        //GIVEN
+        backendCacheControl = "no-cache";
+        get("/notes/patient/1", "user");
+        //WHEN
+        MockServerHttpResponse response = get("/notes/patient/1", "user");
+        //THEN
+        assertThat(routed).hasSize(2);
+        assertThat(routed.get(1).getRequest().getHeaders().getIfNoneMatch()).containsExactly(ETAG);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBodyAsString().block()).isEqualTo("{\"id\":1,\"a\":\"b\"}");
+        assertThat(count("revalidated")).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a client having the fresh cached response should receive 304 Not Modified")
+    public void clientHavingTheCachedResponseShouldReceiveNotModified() {
+        //GIVEN
+        get("/patients/1", "user");
+        ServerWebExchange exchange = exchange(MockServerHttpRequest.get("/patients/1").ifNoneMatch(ETAG), "user");
+        //WHEN
+        responseCacheFilter.filter(exchange, chain).block();
+        //THEN
+        assertThat(routed).hasSize(1);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("a path out of the cached paths should always be routed")
+    public void pathOutOfTheCachedPathsShouldAlwaysBeRouted() {
+        //GIVEN
+        get("/front/home", "user");
+        //WHEN
+        get("/front/home", "user");
+        //THEN
+        assertThat(routed).hasSize(2);
+    }
+
+    @Test
+    @Tag("ResponseCacheFilterTest")
+    @DisplayName("an export larger than a cache entry should stream through chunk by chunk and not be cached")
+    public void largeExportShouldStreamThroughAndNotBeCached() {
+        //GIVEN
+        LargeStreamedBody export = new LargeStreamedBody(LargeStreamedBody.SMALL_CHUNK_SIZE, LargeStreamedBody.SMALL_CHUNKS);
+        List<LargeStreamedBody.ClientResponse> responses = new ArrayList<>();
+        GatewayFilterChain exportChain = exchange -> {
+            routed.add(exchange);
+            exchange.getResponse().getHeaders().setCacheControl(backendCacheControl);
+            return export.writeTo(exchange.getResponse());
+        };
+        //WHEN
+        for (int i = 0; i < 2; i++) {
+            LargeStreamedBody.ClientResponse response = export.newClientResponse();
+            responses.add(response);
+            responseCacheFilter.filter(exchange(MockServerHttpRequest.get("/patients/export"), "user").mutate().response(response).build(), exportChain).block();
+        }
+        //THEN
+        assertThat(routed).hasSize(2);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getReceived()).isEqualTo(export.getSize()));
+        // the first chunk reached the client long before the backend produced the last one
+        assertThat(responses.get(0).getProducedAtFirstChunk()).isLessThan(export.getChunks() / 2);
+        assertThat(count("miss")).isEqualTo(2);
+    }
+}
@@ -0,0 +1,208 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coalescing of concurrent identical GET requests.
+ */
+public class SingleFlightFilterTest {
+
+    private static final String PAGE = "{\"content\":[{\"id\":1}]}";
+
+    private SingleFlightProperties singleFlightProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlightFilter singleFlightFilter;
+    private AtomicInteger routed;
+    private Sinks.Empty<Void> backendLatency;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        singleFlightProperties = new SingleFlightProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlightFilter = new SingleFlightFilter(singleFlightProperties, meterRegistry);
+        routed = new AtomicInteger();
+        backendLatency = Sinks.empty();
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        singleFlightProperties = null;
+        meterRegistry = null;
+        singleFlightFilter = null;
+        routed = null;
+        backendLatency = null;
+    }
+
+    /**
+     * Backend answering the page, which a shared cache may store, once backendLatency completes
+     */
+    private final GatewayFilterChain chain = exchange -> {
+        routed.incrementAndGet();
+        return backendLatency.asMono().then(Mono.defer(() -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setCacheControl("max-age=10, s-maxage=10");
+            response.getHeaders().setContentLength(PAGE.length());
+            return response.writeWith(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(PAGE.getBytes(StandardCharsets.UTF_8))));
+        }));
+    };
+
+    private ServerWebExchange exchange(String username, String... authorities) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/patients?pageNumber=0")).mutate()
+                .principal(Mono.just(UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList(authorities))))
+                .build();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.singleflight").tag("route", "none").tag("result", result).counter().count();
+    }
+
+    @Test
+    @Tag("SingleFlightFilterTest")
+    @DisplayName("concurrent identical requests of users with the same authorities should be routed once")
+    public void concurrentIdenticalRequestsShouldBeRoutedOnce() {
+        //GIVEN
+        List<ServerWebExchange> exchanges = List.of(exchange("doctor1", "USER"), exchange("doctor2", "USER"), exchange("doctor3", "USER"));
+        List<Mono<Void>> requests = exchanges.stream().map(exchange -> singleFlightFilter.filter(exchange, chain).cache()).toList();
+        requests.forEach(Mono::subscribe);
+        //WHEN
+        backendLatency.tryEmitEmpty();
+        requests.forEach(Mono::block);
+        //THEN
+        assertThat(routed.get()).isEqualTo(1);
+        exchanges.forEach(exchange -> {
+            MockServerHttpResponse response = (MockServerHttpResponse) exchange.getResponse();
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBodyAsString().block()).isEqualTo(PAGE);
+        });
+        assertThat(count("leader")).isEqualTo(1);
+        assertThat(count("follower")).isEqualTo(2);
+    }
+
+    @Test
+    @Tag("SingleFlightFilterTest")
+    @DisplayName("a follower should fill its cache with the response shared by the leader")
+    public void followerShouldFillItsCacheWithTheSharedResponse() {
+        //GIVEN
+        ResponseCacheFilter responseCacheFilter = new ResponseCacheFilter(new ResponseCache(new ResponseCacheProperties(), meterRegistry));
+        GatewayFilterChain cachedChain = exchange -> singleFlightFilter.filter(exchange, chain);
+        ServerWebExchange leader = exchange("doctor1", "USER");
+        ServerWebExchange follower = exchange("doctor2", "USER");
+        Mono<Void> leaderRequest = responseCacheFilter.filter(leader, cachedChain).cache();
+        Mono<Void> followerRequest = responseCacheFilter.filter(follower, cachedChain).cache();
+        leaderRequest.subscribe();
+        followerRequest.subscribe();
+        backendLatency.tryEmitEmpty();
+        leaderRequest.block();
+        followerRequest.block();
+        //WHEN
+        ServerWebExchange again = exchange("doctor2", "USER");
+        responseCacheFilter.filter(again, cachedChain).block();
+        //THEN
+        assertThat(routed.get()).isEqualTo(1);
+        assertThat(count("follower")).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.response.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        List.of(leader, follower, again).forEach(exchange -> {
+            MockServerHttpResponse response = (MockServerHttpResponse) exchange.getResponse();
+            assertThat(response.getBodyAsString().block()).isEqualTo(PAGE);
+            assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=10, private");
+        });
+    }
+
+    @Test
+    @Tag("SingleFlightFilterTest")
+    @DisplayName("requests of users with other authorities should not be coalesced")
+    public void requestsWithOtherAuthoritiesShouldNotBeCoalesced() {
+        //GIVEN
+        Mono<Void> user = singleFlightFilter.filter(exchange("doctor1", "USER"), chain).cache();
+        Mono<Void> admin = singleFlightFilter.filter(exchange("admin", "USER", "ADMIN"), chain).cache();
+        user.subscribe();
+        admin.subscribe();
+        //WHEN
+        backendLatency.tryEmitEmpty();
+        user.block();
+        admin.block();
+        //THEN
+        assertThat(routed.get()).isEqualTo(2);
+    }
+
+    @Test
+    @Tag("SingleFlightFilterTest")
+    @DisplayName("a request after the response should start a new flight")
+    public void requestAfterTheResponseShouldStartANewFlight() {
+        //GIVEN
+        backendLatency.tryEmitEmpty();
+        singleFlightFilter.filter(exchange("doctor1", "USER"), chain).block();
+        //WHEN
+        singleFlightFilter.filter(exchange("doctor2", "USER"), chain).block();
+        //THEN
+        assertThat(routed.get()).isEqualTo(2);
+        assertThat(count("leader")).isEqualTo(2);
+    }
+
+    @Test
+    @Tag("SingleFlightFilterTest")
+    @DisplayName("a follower waiting longer than maxWait should be routed on its own")
+    public void followerWaitingLongerThanMaxWaitShouldBeRoutedOnItsOwn() {
+        //GIVEN
+        singleFlightProperties.setMaxWait(Duration.ofMillis(50));
+        singleFlightFilter.filter(exchange("doctor1", "USER"), chain).subscribe();
+        Mono<Void> follower = singleFlightFilter.filter(exchange("doctor2", "USER"), chain).cache();
+        //WHEN
+        follower.subscribe();
+        Mono.delay(Duration.ofMillis(200)).block();
+        backendLatency.tryEmitEmpty();
+        follower.block();
+        //THEN
+        assertThat(routed.get()).isEqualTo(2);
+        assertThat(count("fallback")).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("SingleFlightFilterTest")
+    @DisplayName("an export larger than a shared body should stream through the leader chunk by chunk and not be shared")
+    public void largeExportShouldStreamThroughTheLeaderAndNotBeShared() {
+        //GIVEN
+        LargeStreamedBody export = new LargeStreamedBody(LargeStreamedBody.SMALL_CHUNK_SIZE, LargeStreamedBody.SMALL_CHUNKS);
+        LargeStreamedBody.ClientResponse leaderResponse = export.newClientResponse();
+        ServerWebExchange leader = exchange("doctor1", "USER").mutate().response(leaderResponse).build();
+        ServerWebExchange follower = exchange("doctor2", "USER");
+        Mono<Void> following = singleFlightFilter.filter(follower, exchange -> {
+            routed.incrementAndGet();
+            return exchange.getResponse().setComplete();
+        }).cache();
+        //WHEN
+        singleFlightFilter.filter(leader, exchange -> {
+            routed.incrementAndGet();
+            following.subscribe();
+            return export.writeTo(exchange.getResponse());
+        }).block();
+        following.block(Duration.ofSeconds(1));
+        //THEN
+        assertThat(leaderResponse.getReceived()).isEqualTo(export.getSize());
+        // the first chunk reached the leader long before the backend produced the last one
+        assertThat(leaderResponse.getProducedAtFirstChunk()).isLessThan(export.getChunks() / 2);
+        assertThat(routed.get()).isEqualTo(2);
+        assertThat(count("fallback")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Versioned, precompressed and immutable static resources of the gateway.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+class StaticResourceConfigTest {
+
+    @Inject
+    WebTestClient webTestClient;
+
+    @Test
+    @Tag("StaticResourceConfigTest")
+    @DisplayName("login page should link the versioned css served gzipped and immutable")
+    public void loginPageShouldLinkTheVersionedCssServedGzippedAndImmutable() {
+
+        //GIVEN
+        String versionedUrl = StaticResourceConfig.versionedUrls("/gatewayservice/").get("/gatewayservice/css/login.css");
+
+        //WHEN
+        String loginPage = webTestClient.get().uri("/login")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        //THEN
+        assertThat(versionedUrl).matches("/gatewayservice/css/login-[0-9a-f]{32}\\.css");
+        assertThat(loginPage).contains("href=\"" + versionedUrl + "\"");
+        webTestClient.get().uri(versionedUrl.substring("/gatewayservice".length()))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable");
+    }
+}
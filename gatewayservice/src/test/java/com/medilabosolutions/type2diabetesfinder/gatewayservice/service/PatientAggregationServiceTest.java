@@ -0,0 +1,181 @@
+package com.medilabosolutions.type2diabetesfinder.gatewayservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.AggregationProperties;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.InternalTokenProperties;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.InternalTokenSigner;
+import com.medilabosolutions.type2diabetesfinder.gatewayservice.configuration.InternalTokenVerifier;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Patient detail composed from patientService and noteService.
+ */
+public class PatientAggregationServiceTest {
+
+    private static final String PATIENT = "{\"id\":1,\"firstName\":\"Test\",\"lastName\":\"TestNone\"}";
+    private static final String NOTES = "{\"content\":[{\"id\":\"1\",\"patientId\":1,\"content\":\"Le patient déclare qu'il 'se sent très bien'\"}],\"cursor\":null}";
+    private static final Authentication USER = UsernamePasswordAuthenticationToken.authenticated("user", null, AuthorityUtils.createAuthorityList("USER"));
+
+    private AggregationProperties aggregationProperties;
+    private InternalTokenProperties internalTokenProperties;
+    private List<ClientRequest> requests;
+    // latency and response of each service, by path prefix
+    private Map<String, Duration> latencies;
+    private Map<String, ClientResponse> responses;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        aggregationProperties = new AggregationProperties();
+        internalTokenProperties = new InternalTokenProperties();
+        internalTokenProperties.setSecret("internal-token-test-secret");
+        requests = new CopyOnWriteArrayList<>();
+        latencies = new HashMap<>(Map.of("/patients", Duration.ZERO, "/notes", Duration.ZERO));
+        responses = new HashMap<>();
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        aggregationProperties = null;
+        internalTokenProperties = null;
+        requests = null;
+        latencies = null;
+        responses = null;
+    }
+
+    private static ClientResponse json(String body) {
+        return ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build();
+    }
+
+    private PatientAggregationService patientAggregationService() {
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            String service = request.url().getPath().startsWith("/patients") ? "/patients" : "/notes";
+            ClientResponse response = responses.getOrDefault(service, json(service.equals("/patients") ? PATIENT : NOTES));
+            return Mono.delay(latencies.get(service)).thenReturn(response);
+        }).build();
+        return new PatientAggregationServiceImpl(webClient, aggregationProperties, internalTokenProperties,
+                new InternalTokenSigner(internalTokenProperties), new ObjectMapper());
+    }
+
+    @Test
+    @Tag("PatientAggregationServiceTest")
+    @DisplayName("getPatientFull should merge the patient and its notes, fetched in parallel with an internal token")
+    public void getPatientFullShouldMergeThePatientAndItsNotesFetchedInParallel() {
+        //GIVEN
+        latencies.put("/patients", Duration.ofMillis(300));
+        latencies.put("/notes", Duration.ofMillis(300));
+        PatientAggregationService patientAggregationService = patientAggregationService();
+        //WHEN
+        long start = System.nanoTime();
+        ObjectNode full = patientAggregationService.getPatientFull(1, USER, null).block();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        //THEN
+        assertThat(full.get("patient").get("lastName").asText()).isEqualTo("TestNone");
+        assertThat(full.get("notes").get("content")).hasSize(1);
+        assertThat(full.get("missing")).isEmpty();
+        assertThat(elapsed).isLessThan(550);
+        assertThat(requests).extracting(request -> request.url().toString())
+                .containsExactlyInAnyOrder("http://patientService/patients/1", "http://noteService/notes/patient/1/timeline?limit=10");
+        assertThat(requests).allSatisfy(request -> {
+            assertThat(request.headers().containsKey(HttpHeaders.AUTHORIZATION)).isFalse();
+            assertThat(new InternalTokenVerifier(internalTokenProperties).verify(request.headers().getFirst("X-Internal-Auth"), Instant.now())).isPresent();
+        });
+    }
+
+    @Test
+    @Tag("PatientAggregationServiceTest")
+    @DisplayName("getPatientFull should send the patient without notes when noteService is too slow")
+    public void getPatientFullShouldSendThePatientWithoutNotesWhenNoteServiceIsTooSlow() {
+        //GIVEN
+        aggregationProperties.setNotesTimeout(Duration.ofMillis(100));
+        latencies.put("/notes", Duration.ofSeconds(5));
+        //WHEN
+        long start = System.nanoTime();
+        ObjectNode full = patientAggregationService().getPatientFull(1, USER, null).block();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        //THEN
+        assertThat(full.get("patient").get("id").asInt()).isEqualTo(1);
+        assertThat(full.get("notes").isNull()).isTrue();
+        assertThat(full.get("missing").get(0).asText()).isEqualTo("notes");
+        assertThat(elapsed).isLessThan(1000);
+    }
+
+    @Test
+    @Tag("PatientAggregationServiceTest")
+    @DisplayName("getPatientFull should send the patient without notes when noteService fails")
+    public void getPatientFullShouldSendThePatientWithoutNotesWhenNoteServiceFails() {
+        //GIVEN
+        responses.put("/notes", ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+        //WHEN
+        ObjectNode full = patientAggregationService().getPatientFull(1, USER, null).block();
+        //THEN
+        assertThat(full.get("patient").get("id").asInt()).isEqualTo(1);
+        assertThat(full.get("missing").get(0).asText()).isEqualTo("notes");
+    }
+
+    @Test
+    @Tag("PatientAggregationServiceTest")
+    @DisplayName("getPatientFull should fail with the 4xx status of patientService")
+    public void getPatientFullShouldFailWithThe4xxStatusOfPatientService() {
+        //GIVEN
+        responses.put("/patients", ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        PatientAggregationService patientAggregationService = patientAggregationService();
+        //WHEN
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientAggregationService.getPatientFull(1, USER, null).block());
+        //THEN
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @Tag("PatientAggregationServiceTest")
+    @DisplayName("getPatientFull should fail with 504 when patientService is too slow")
+    public void getPatientFullShouldFailWith504WhenPatientServiceIsTooSlow() {
+        //GIVEN
+        aggregationProperties.setPatientTimeout(Duration.ofMillis(100));
+        latencies.put("/patients", Duration.ofSeconds(5));
+        PatientAggregationService patientAggregationService = patientAggregationService();
+        //WHEN
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientAggregationService.getPatientFull(1, USER, null).block());
+        //THEN
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    @Tag("PatientAggregationServiceTest")
+    @DisplayName("getPatientFull should forward the Authorization header while no internal token is minted")
+    public void getPatientFullShouldForwardTheAuthorizationHeaderWithoutInternalToken() {
+        //GIVEN
+        internalTokenProperties.setSecret(null);
+        //WHEN
+        patientAggregationService().getPatientFull(1, USER, "Basic dXNlcjp1c2Vy").block();
+        //THEN
+        assertThat(requests).hasSize(2).allSatisfy(request -> {
+            assertThat(request.headers().getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Basic dXNlcjp1c2Vy");
+            assertThat(request.headers().containsKey("X-Internal-Auth")).isFalse();
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.medilabosolutions.type2diabetesfinder.noteservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Authenticates username and password with the delegate, a DaoAuthenticationProvider matching the BCrypt hash,
+ * unless the same credentials were verified within the ttl of the VerifiedCredentialCache.
+ * A failed verification is never cached.
+ */
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        String key = verifiedCredentialCache.keyOf(authentication.getName(), password);
+        Authentication verified = verifiedCredentialCache.get(key);
+        if (verified == null) {
+            verified = delegate.authenticate(authentication);
+            verifiedCredentialCache.put(key, UsernamePasswordAuthenticationToken.authenticated(verified.getPrincipal(), null, verified.getAuthorities()));
+            return verified;
+        }
+        UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(verified.getPrincipal(), null, verified.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,53 @@
+package com.medilabosolutions.type2diabetesfinder.noteservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+/**
+ * UserDetailsManager dropping the cached verifications of a user when it is changed or deleted.
+ */
+@RequiredArgsConstructor
+public class CredentialCacheInvalidatingUserDetailsManager implements UserDetailsManager {
+
+    private final UserDetailsManager delegate;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return delegate.loadUserByUsername(username);
+    }
+
+    @Override
+    public void createUser(UserDetails user) {
+        delegate.createUser(user);
+        verifiedCredentialCache.invalidate(user.getUsername());
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        delegate.updateUser(user);
+        verifiedCredentialCache.invalidate(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        delegate.deleteUser(username);
+        verifiedCredentialCache.invalidate(username);
+    }
+
+    /**
+     * The user is the one of the current security context : all verifications are dropped.
+     */
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        delegate.changePassword(oldPassword, newPassword);
+        verifiedCredentialCache.invalidateAll();
+    }
+
+    @Override
+    public boolean userExists(String username) {
+        return delegate.userExists(username);
+    }
+}
@@ -0,0 +1,21 @@
+package com.medilabosolutions.type2diabetesfinder.noteservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the internal token minted by the gateway for the authenticated requests it routes.
+ * <p>
+ * secret is the HMAC key shared with the gateway, no token is accepted while it is blank.
+ * The token is received in the header named header.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.noteservice.internaltoken")
+@Configuration
+@Getter
+@Setter
+public class InternalTokenProperties {
+    private String secret;
+    private String header = "X-Internal-Auth";
+}
@@ -0,0 +1,88 @@
+package com.medilabosolutions.type2diabetesfinder.noteservice.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Checks the HMAC-SHA256 signed token carrying a user authenticated by the gateway,
+ * instead of matching a BCrypt password on every request.
+ * <p>
+ * token = base64url(username LF authorities LF expiresAt) "." base64url(HmacSHA256(secret, first part)),
+ * authorities being comma separated and expiresAt in epoch seconds.
+ */
+@Component
+@Slf4j
+public class InternalTokenVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String header;
+    // a Mac is not thread safe
+    private final ThreadLocal<Mac> macs;
+
+    public InternalTokenVerifier(InternalTokenProperties internalTokenProperties) {
+        header = internalTokenProperties.getHeader();
+        if (StringUtils.hasText(internalTokenProperties.getSecret())) {
+            SecretKeySpec key = new SecretKeySpec(internalTokenProperties.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+            macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(ALGORITHM);
+                    mac.init(key);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } else {
+            log.warn("No internal token secret : requests are authenticated with their own credentials only");
+            macs = null;
+        }
+    }
+
+    /**
+     * @return the name of the header carrying the token
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * @param token the token received
+     * @param now   the current time
+     * @return the authentication of the user it carries, empty if it is malformed, forged, expired or no secret is configured
+     */
+    public Optional<UsernamePasswordAuthenticationToken> verify(String token, Instant now) {
+        int dot = token.lastIndexOf('.');
+        if (macs == null || dot < 0) {
+            return Optional.empty();
+        }
+        try {
+            String encodedPayload = token.substring(0, dot);
+            byte[] signature = macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(signature, DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            String[] claims = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split("\n", -1);
+            if (claims.length != 3 || Long.parseLong(claims[2]) <= now.getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(UsernamePasswordAuthenticationToken.authenticated(
+                    claims[0], null, AuthorityUtils.commaSeparatedStringToAuthorityList(claims[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.medilabosolutions.type2diabetesfinder.noteservice.configuration;
+
+import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+/**
+ * Migration of the indexes of the notes collection, run at startup since spring.data.mongodb.auto-index-creation is disabled.
+ * <p>
+ * The unique index on patientId of the first versions, which rejected a second note for a patient, is dropped :
+ * a patient has a note history. The indexes declared on Note, the compound index of the note timeline,
+ * are then created if missing. Both steps do nothing once the collection is migrated.
+ * The service starts even if MongoDB is unavailable, the migration is then retried on the next start.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class NoteIndexConfiguration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateNoteIndexesOnStartup() {
+        try {
+            migrateNoteIndexes();
+        } catch (DataAccessException e) {
+            log.error("Indexes of the notes not migrated, to be retried on the next start : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the unique patientId index and creates the indexes declared on Note
+     */
+    public void migrateNoteIndexes() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Note.class);
+        indexOperations.getIndexInfo().stream()
+                .filter(NoteIndexConfiguration::isUniquePatientIdIndex)
+                .forEach(indexInfo -> {
+                    log.info("Dropping the unique index {} of the notes : a patient has several notes", indexInfo.getName());
+                    indexOperations.dropIndex(indexInfo.getName());
+                });
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Note.class)
+                .forEach(indexOperations::ensureIndex);
+    }
+
+    private static boolean isUniquePatientIdIndex(IndexInfo indexInfo) {
+        return indexInfo.isUnique()
+                && indexInfo.getIndexFields().size() == 1
+                && "patientId".equals(indexInfo.getIndexFields().get(0).getKey());
+    }
+}
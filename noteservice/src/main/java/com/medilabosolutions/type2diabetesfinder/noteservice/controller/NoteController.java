@@ -2,6 +2,7 @@ package com.medilabosolutions.type2diabetesfinder.noteservice.controller;
 
 import com.medilabosolutions.type2diabetesfinder.noteservice.exception.RessourceNotFoundException;
 import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.noteservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.noteservice.service.NoteService;
 import com.medilabosolutions.type2diabetesfinder.noteservice.service.RequestService;
 import jakarta.validation.ConstraintViolationException;
@@ -12,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.BadRequestException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -56,6 +58,33 @@ public class NoteController {
         return new ResponseEntity<>(notes, HttpStatus.OK);
     }
 
+    /**
+     * Retrieves a page of the note history of a patient, latest first.
+     * Keyset pagination : the cursor of the previous page gives the following one, whatever the history length.
+     *
+     * @param patientId the ID of the patient
+     * @param cursorOpt the cursor of the previous page, empty for the latest notes
+     * @param limit     the maximum number of notes, from 1 to 100
+     * @param request   the web request context
+     * @return ResponseEntity containing the PageEnvelope of the notes, with HTTP status 200
+     * @throws MethodArgumentTypeMismatchException if the patient ID is not a valid integer
+     * @throws ConstraintViolationException        if the patient ID or the limit do not meet the defined constraints
+     * @throws IllegalArgumentException            if the cursor is not a note cursor
+     */
+    @GetMapping("/notes/patient/{patientId}/timeline")
+    public ResponseEntity<PageEnvelope<Note>> getNoteTimeline(@PathVariable("patientId") @Min(1) @Max(2147483647) Integer patientId,
+                                                              @RequestParam(name = "cursor") Optional<String> cursorOpt,
+                                                              @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(100) int limit,
+                                                              WebRequest request) throws MethodArgumentTypeMismatchException, ConstraintViolationException, IllegalArgumentException {
+        Slice<Note> notes = noteService.getNoteTimeline(patientId, cursorOpt.orElse(null), limit);
+        log.info("{} : {} : {} notes found for patient ID {}",
+                requestService.requestToString(request),
+                ((ServletWebRequest) request).getHttpMethod(),
+                notes.getNumberOfElements(),
+                patientId);
+        return new ResponseEntity<>(PageEnvelope.of(notes, NoteService::cursorOf), HttpStatus.OK);
+    }
+
     /**
      * Récupère une note par son identifiant unique.
      *
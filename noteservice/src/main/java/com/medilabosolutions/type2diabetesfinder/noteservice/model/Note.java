@@ -5,7 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
  * <p>
  * Annotations:
  * - @Document: Specifies that this class is a MongoDB document.
+ * - @CompoundIndex: Index of the note history of a patient, latest first, for keyset pagination, created by NoteIndexConfiguration.
  * - @Getter: Lombok annotation to generate getter methods.
  * - @Setter: Lombok annotation to generate setter methods.
  * - @Builder: Lombok annotation to implement the builder pattern for the class.
@@ -24,6 +25,7 @@ import java.time.LocalDateTime;
  * - @ToString: Lombok annotation to generate a toString method including only explicitly included fields.
  */
 @Document(collection = "notes")
+@CompoundIndex(name = "patientId_dateTime_id", def = "{'patientId': 1, 'dateTime': -1, '_id': -1}")
 @Getter
 @Setter
 @Builder
@@ -35,7 +37,6 @@ public class Note {
     @Id
     private String id;
 
-    @Indexed(unique = true)
     @NotNull(message = "Patient ID is mandatory")
     private Integer patientId;
 
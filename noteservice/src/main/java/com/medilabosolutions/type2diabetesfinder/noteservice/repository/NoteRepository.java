@@ -1,8 +1,12 @@
 package com.medilabosolutions.type2diabetesfinder.noteservice.repository;
 
 import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,4 +22,26 @@ public interface NoteRepository extends MongoRepository<Note, String> {
      * @return a list of notes for the specified patient, ordered by date time in descending order
      */
     List<Note> findAllByPatientIdOrderByDateTimeDesc(Integer patientId);
+
+    /**
+     * Find the latest notes of a patient, the first page of the note history.
+     *
+     * @param patientId the ID of the patient
+     * @param pageable  the number of notes to read
+     * @return the latest notes, ordered by date time then id in descending order
+     */
+    List<Note> findByPatientIdOrderByDateTimeDescIdDesc(Integer patientId, Pageable pageable);
+
+    /**
+     * Keyset pagination : find the notes of a patient older than a given note, without skipping the newer ones.
+     *
+     * @param patientId the ID of the patient
+     * @param dateTime  the date time of the last note already read
+     * @param id        the id of the last note already read, to order notes with the same date time
+     * @param pageable  the number of notes to read
+     * @return the following notes, ordered by date time then id in descending order
+     */
+    @Query(value = "{ 'patientId': ?0, $or: [ { 'dateTime': { $lt: ?1 } }, { 'dateTime': ?1, '_id': { $lt: ?2 } } ] }",
+            sort = "{ 'dateTime': -1, '_id': -1 }")
+    List<Note> findByPatientIdBefore(Integer patientId, LocalDateTime dateTime, ObjectId id, Pageable pageable);
 }
\ No newline at end of file
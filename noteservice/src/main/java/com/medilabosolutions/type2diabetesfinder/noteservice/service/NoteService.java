@@ -5,6 +5,7 @@ import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 
 import java.util.List;
@@ -22,6 +23,25 @@ public interface NoteService {
      */
     List<Note> getNotesByPatientId(Integer patientId);
 
+    /**
+     * Retrieves a page of the note history of a patient, latest first, by keyset pagination.
+     *
+     * @param patientId the ID of the patient
+     * @param cursor    the cursor of the last note already read, null for the latest notes
+     * @param limit     the maximum number of notes
+     * @return a slice of notes, with hasNext if older notes remain
+     * @throws IllegalArgumentException if the cursor is not a note cursor
+     */
+    Slice<Note> getNoteTimeline(Integer patientId, String cursor, int limit) throws IllegalArgumentException;
+
+    /**
+     * @param note a note
+     * @return the cursor of the note in the note history of its patient
+     */
+    static String cursorOf(Note note) {
+        return note.getDateTime() + "_" + note.getId();
+    }
+
     /**
      * Récupère une note par son identifiant.
      *
@@ -6,11 +6,17 @@ import com.medilabosolutions.type2diabetesfinder.noteservice.repository.NoteRepo
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.BadRequestException;
+import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -31,6 +37,33 @@ public class NoteServiceImpl implements NoteService {
         return noteRepository.findAllByPatientIdOrderByDateTimeDesc(patientId);
     }
 
+    /**
+     * {@inheritDoc}
+     * One more note than the limit is read to know if older notes remain.
+     */
+    @Override
+    public Slice<Note> getNoteTimeline(Integer patientId, String cursor, int limit) throws IllegalArgumentException {
+        Pageable pageRequest = PageRequest.of(0, limit + 1);
+        List<Note> notes;
+        if (cursor == null) {
+            notes = noteRepository.findByPatientIdOrderByDateTimeDescIdDesc(patientId, pageRequest);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            if (separator < 0 || !ObjectId.isValid(cursor.substring(separator + 1))) {
+                throw new IllegalArgumentException("Invalid note cursor");
+            }
+            LocalDateTime dateTime;
+            try {
+                dateTime = LocalDateTime.parse(cursor.substring(0, separator));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid note cursor", e);
+            }
+            notes = noteRepository.findByPatientIdBefore(patientId, dateTime, new ObjectId(cursor.substring(separator + 1)), pageRequest);
+        }
+        boolean hasNext = notes.size() > limit;
+        return new SliceImpl<>(hasNext ? notes.subList(0, limit) : notes, PageRequest.of(0, limit), hasNext);
+    }
+
     /**
      * {@inheritDoc}
      */
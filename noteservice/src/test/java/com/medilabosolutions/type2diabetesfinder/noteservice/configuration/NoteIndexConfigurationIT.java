@@ -0,0 +1,86 @@
+package com.medilabosolutions.type2diabetesfinder.noteservice.configuration;
+
+import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.noteservice.repository.NoteRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+/**
+ * Integration test class for the migration of the indexes of the notes collection.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class NoteIndexConfigurationIT {
+
+    @Autowired
+    private NoteIndexConfiguration noteIndexConfiguration;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    private IndexOperations indexOperations;
+
+    @BeforeEach
+    public void setUpPerTest() {
+        indexOperations = mongoTemplate.indexOps(Note.class);
+        // the notes collection as the first versions left it
+        indexOperations.dropAllIndexes();
+        indexOperations.ensureIndex(new Index().on("patientId", Sort.Direction.ASC).unique().named("patientId"));
+    }
+
+    @AfterEach
+    public void undefPerTest() {
+        noteRepository.deleteAll();
+        indexOperations = null;
+    }
+
+    @Test
+    @Tag("NoteIndexConfigurationIT")
+    @DisplayName("migration should replace the unique patientId index by the index of the note timeline")
+    public void migrationShouldReplaceTheUniquePatientIdIndexByTheIndexOfTheNoteTimeline() {
+        // GIVEN
+        LocalDateTime dateTime = LocalDateTime.of(2024, 2, 22, 14, 20, 0);
+
+        // WHEN
+        noteIndexConfiguration.migrateNoteIndexes();
+
+        // THEN
+        assertThat(indexOperations.getIndexInfo()).extracting(IndexInfo::getName)
+                .contains("patientId_dateTime_id")
+                .doesNotContain("patientId");
+        assertDoesNotThrow(() -> {
+            noteRepository.save(Note.builder().patientId(1).dateTime(dateTime).content("first note").build());
+            noteRepository.save(Note.builder().patientId(1).dateTime(dateTime.plusDays(1)).content("second note").build());
+        });
+    }
+
+    @Test
+    @Tag("NoteIndexConfigurationIT")
+    @DisplayName("migration should leave a migrated collection as it is")
+    public void migrationShouldLeaveAMigratedCollectionAsItIs() {
+        // GIVEN
+        noteIndexConfiguration.migrateNoteIndexes();
+
+        // WHEN
+        noteIndexConfiguration.migrateNoteIndexes();
+
+        // THEN
+        assertThat(indexOperations.getIndexInfo()).extracting(IndexInfo::getName)
+                .containsExactlyInAnyOrder("_id_", "patientId_dateTime_id");
+    }
+}
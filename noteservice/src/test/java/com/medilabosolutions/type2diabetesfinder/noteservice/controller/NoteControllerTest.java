@@ -2,6 +2,7 @@ package com.medilabosolutions.type2diabetesfinder.noteservice.controller;
 
 import com.medilabosolutions.type2diabetesfinder.noteservice.exception.RessourceNotFoundException;
 import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
+import com.medilabosolutions.type2diabetesfinder.noteservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.noteservice.service.NoteService;
 import com.medilabosolutions.type2diabetesfinder.noteservice.service.RequestService;
 import org.apache.coyote.BadRequestException;
@@ -12,7 +13,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -171,6 +174,74 @@ public class NoteControllerTest {
         }
     }
 
+    @Nested
+    @Tag("getNoteTimeline")
+    @DisplayName("Tests for GET /notes/patient/{patientId}/timeline")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class GetNoteTimelineTests {
+
+        @BeforeAll
+        public void setUpForAllTests() {
+            requestMock = new MockHttpServletRequest();
+            requestMock.setMethod("GET");
+            requestMock.setServerName("http://localhost:9003");
+            requestMock.setRequestURI("/notes/patient/4/timeline");
+            request = new ServletWebRequest(requestMock);
+        }
+
+        @AfterAll
+        public void unSetForAllTests() {
+            requestMock = null;
+            request = null;
+        }
+
+        @Test
+        @Tag("NoteControllerTest")
+        @DisplayName("test getNoteTimeline should return a Success ResponseEntity With the notes and the cursor of the last one")
+        public void getNoteTimelineTestShouldReturnASuccessResponseEntityWithTheNotesAndTheCursorOfTheLastOne() {
+            // GIVEN
+            List<Note> notes = List.of(
+                    Note.builder()
+                            .id("665000000000000000000009")
+                            .patientId(4)
+                            .dateTime(LocalDateTime.of(2024, 5, 22, 16, 41, 51))
+                            .content("Taille, Poids, Cholestérol, Vertige et Réaction")
+                            .build(),
+                    Note.builder()
+                            .id("665000000000000000000008")
+                            .patientId(4)
+                            .dateTime(LocalDateTime.of(2024, 4, 22, 16, 21, 10))
+                            .content("Le patient déclare avoir commencé à fumer depuis peu Hémoglobine A1C supérieure au niveau recommandé")
+                            .build());
+            when(noteService.getNoteTimeline(4, null, 2)).thenReturn(new SliceImpl<>(notes, PageRequest.of(0, 2), true));
+
+            // WHEN
+            ResponseEntity<PageEnvelope<Note>> responseEntity = noteController.getNoteTimeline(4, Optional.empty(), 2, request);
+
+            // THEN
+            assertThat(responseEntity.getStatusCode().is2xxSuccessful()).isTrue();
+            PageEnvelope<Note> envelope = responseEntity.getBody();
+            assertThat(envelope).isNotNull();
+            assertThat(envelope.getContent()).extracting(Note::getId)
+                    .containsExactly("665000000000000000000009", "665000000000000000000008");
+            assertThat(envelope.isHasNext()).isTrue();
+            assertThat(envelope.getTotalElements()).isNull();
+            assertThat(envelope.getCursor()).isEqualTo("2024-04-22T16:21:10_665000000000000000000008");
+        }
+
+        @Test
+        @Tag("NoteControllerTest")
+        @DisplayName("test getNoteTimeline with an invalid cursor should throw IllegalArgumentException")
+        public void getNoteTimelineTestWithAnInvalidCursorShouldThrowIllegalArgumentException() {
+            // GIVEN
+            when(noteService.getNoteTimeline(4, "bad", 10)).thenThrow(new IllegalArgumentException("Invalid note cursor"));
+
+            // WHEN
+            // THEN
+            assertThrows(IllegalArgumentException.class, () -> noteController.getNoteTimeline(4, Optional.of("bad"), 10, request));
+        }
+    }
+
     @Nested
     @Tag("getNoteById")
     @DisplayName("Tests for GET /notes/{id}")
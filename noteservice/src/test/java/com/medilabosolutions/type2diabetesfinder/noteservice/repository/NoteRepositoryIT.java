@@ -1,10 +1,12 @@
 package com.medilabosolutions.type2diabetesfinder.noteservice.repository;
 
 import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -257,4 +259,28 @@ public class NoteRepositoryIT {
         // THEN
         assertThat(notes).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @Tag("NoteRepositoryIT")
+    @DisplayName("keyset pagination test should walk the note history without skipping notes of the same date time")
+    public void keysetPaginationTestShouldWalkTheNoteHistoryWithoutSkippingNotesOfTheSameDateTime() {
+        // GIVEN
+        LocalDateTime sameDateTime = LocalDateTime.of(2024, 2, 22, 14, 20, 0);
+        for (int i = 0; i < 5; i++) {
+            noteRepository.save(Note.builder().patientId(5).dateTime(i < 3 ? sameDateTime : sameDateTime.plusDays(i)).content("note " + i).build());
+        }
+        noteRepository.save(Note.builder().patientId(6).dateTime(sameDateTime).content("other patient").build());
+
+        // WHEN
+        List<Note> firstPage = noteRepository.findByPatientIdOrderByDateTimeDescIdDesc(5, PageRequest.of(0, 2));
+        Note last = firstPage.get(1);
+        List<Note> secondPage = noteRepository.findByPatientIdBefore(5, last.getDateTime(), new ObjectId(last.getId()), PageRequest.of(0, 2));
+        last = secondPage.get(1);
+        List<Note> thirdPage = noteRepository.findByPatientIdBefore(5, last.getDateTime(), new ObjectId(last.getId()), PageRequest.of(0, 2));
+
+        // THEN
+        assertThat(firstPage).extracting(Note::getContent).containsExactly("note 4", "note 3");
+        assertThat(secondPage).extracting(Note::getContent).containsExactly("note 2", "note 1");
+        assertThat(thirdPage).extracting(Note::getContent).containsExactly("note 0");
+    }
+}
@@ -5,6 +5,7 @@ import com.medilabosolutions.type2diabetesfinder.noteservice.model.Note;
 import com.medilabosolutions.type2diabetesfinder.noteservice.repository.NoteRepository;
 import com.medilabosolutions.type2diabetesfinder.noteservice.service.NoteServiceImpl;
 import org.apache.coyote.BadRequestException;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,7 +13,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 
 import java.time.LocalDateTime;
@@ -26,6 +29,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 /**
@@ -320,4 +324,73 @@ public class NoteServiceTest {
             assertDoesNotThrow(() -> noteService.deleteNote("1"));
         }
     }
+
+    @Nested
+    @Tag("getNoteTimelineTests")
+    @DisplayName("Tests for getting the note history of a patient")
+    class GetNoteTimelineTests {
+
+        private final String id1 = "665000000000000000000001";
+        private final String id2 = "665000000000000000000002";
+        private final String id3 = "665000000000000000000003";
+
+        private List<Note> notes;
+
+        @BeforeEach
+        public void setUpForEachTest() {
+            notes = List.of(
+                    Note.builder().id(id3).patientId(1).dateTime(LocalDateTime.of(2024, 3, 1, 10, 0)).content("third").build(),
+                    Note.builder().id(id2).patientId(1).dateTime(LocalDateTime.of(2024, 2, 1, 10, 0)).content("second").build(),
+                    Note.builder().id(id1).patientId(1).dateTime(LocalDateTime.of(2024, 2, 1, 10, 0)).content("first").build());
+        }
+
+        @AfterEach
+        public void unSetForEachTests() {
+            noteService = null;
+            notes = null;
+        }
+
+        @Test
+        @Tag("NoteServiceTest")
+        @DisplayName("test getNoteTimeline without cursor should return the latest notes and tell older ones remain")
+        public void getNoteTimelineTestWithoutCursorShouldReturnTheLatestNotes() {
+            // GIVEN
+            when(noteRepository.findByPatientIdOrderByDateTimeDescIdDesc(eq(1), eq(PageRequest.of(0, 3)))).thenReturn(notes);
+
+            // WHEN
+            Slice<Note> result = noteService.getNoteTimeline(1, null, 2);
+
+            // THEN
+            assertThat(result.getContent()).extracting(Note::getContent).containsExactly("third", "second");
+            assertThat(result.hasNext()).isTrue();
+            assertThat(NoteService.cursorOf(result.getContent().get(1))).isEqualTo("2024-02-01T10:00_" + id2);
+        }
+
+        @Test
+        @Tag("NoteServiceTest")
+        @DisplayName("test getNoteTimeline with cursor should return the notes older than the cursor")
+        public void getNoteTimelineTestWithCursorShouldReturnTheNotesOlderThanTheCursor() {
+            // GIVEN
+            when(noteRepository.findByPatientIdBefore(1, LocalDateTime.of(2024, 2, 1, 10, 0), new ObjectId(id2), PageRequest.of(0, 3)))
+                    .thenReturn(notes.subList(2, 3));
+
+            // WHEN
+            Slice<Note> result = noteService.getNoteTimeline(1, "2024-02-01T10:00_" + id2, 2);
+
+            // THEN
+            assertThat(result.getContent()).extracting(Note::getContent).containsExactly("first");
+            assertThat(result.hasNext()).isFalse();
+        }
+
+        @Test
+        @Tag("NoteServiceTest")
+        @DisplayName("test getNoteTimeline with an invalid cursor should throw IllegalArgumentException")
+        public void getNoteTimelineTestWithAnInvalidCursorShouldThrowIllegalArgumentException() {
+            // GIVEN
+            // WHEN
+            // THEN
+            assertThrows(IllegalArgumentException.class, () -> noteService.getNoteTimeline(1, "yesterday_" + id2, 2));
+            assertThrows(IllegalArgumentException.class, () -> noteService.getNoteTimeline(1, "2024-02-01T10:00_2", 2));
+        }
+    }
 }
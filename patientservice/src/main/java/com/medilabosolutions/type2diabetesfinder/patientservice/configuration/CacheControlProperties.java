@@ -0,0 +1,21 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache-Control sent with the GET responses : fresh for maxAge, in private caches and in shared ones (s-maxage).
+ * s-maxage lets the gateway, a shared cache, store the responses to authenticated requests : it keys them by user,
+ * reuses them for maxAge, then revalidates them with their ETag.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.patientservice.cachecontrol")
+@Configuration
+@Getter
+@Setter
+public class CacheControlProperties {
+    private Duration maxAge = Duration.ofSeconds(10);
+}
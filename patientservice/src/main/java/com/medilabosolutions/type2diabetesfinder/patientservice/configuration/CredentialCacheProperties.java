@@ -0,0 +1,23 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cache of verified HTTP Basic credentials.
+ * <p>
+ * A successful verification is reused for ttl without matching the BCrypt hash again,
+ * at most maxSize verifications are kept.
+ */
+@ConfigurationProperties(prefix = "com.medilabosolutions.type2diabetesfinder.patientservice.credentialcache")
+@Configuration
+@Getter
+@Setter
+public class CredentialCacheProperties {
+    private long maxSize = 1_000;
+    private Duration ttl = Duration.ofSeconds(60);
+}
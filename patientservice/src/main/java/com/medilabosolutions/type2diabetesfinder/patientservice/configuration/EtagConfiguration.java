@@ -0,0 +1,54 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.io.IOException;
+
+/**
+ * Adds an ETag to the patient responses and answers 304 Not Modified to a matching If-None-Match,
+ * so that the front can revalidate its cached pages without receiving them again.
+ */
+@Configuration
+public class EtagConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/patients", "/patients/*");
+        return registration;
+    }
+
+    /**
+     * Sends "Cache-Control: max-age=..., s-maxage=..." with the GET patient responses,
+     * in place of the "no-store" Spring Security writes when the header is absent.
+     *
+     * @param cacheControlProperties the max-age
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> cacheControlHeaderFilter(CacheControlProperties cacheControlProperties) {
+        String cacheControl = CacheControl.maxAge(cacheControlProperties.getMaxAge()).sMaxAge(cacheControlProperties.getMaxAge()).getHeaderValue();
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+                if (HttpMethod.GET.matches(request.getMethod())) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                }
+                filterChain.doFilter(request, response);
+            }
+        });
+        registration.addUrlPatterns("/patients", "/patients/*");
+        return registration;
+    }
+}
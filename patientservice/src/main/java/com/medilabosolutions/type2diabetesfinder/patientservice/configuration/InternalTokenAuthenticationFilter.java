@@ -0,0 +1,39 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Authenticates a request routed by the gateway from its internal token.
+ * Placed before the BasicAuthenticationFilter, which then skips the BCrypt check of the same user.
+ * Without a valid token the request goes on to HTTP Basic.
+ */
+@RequiredArgsConstructor
+public class InternalTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private final InternalTokenVerifier internalTokenVerifier;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(internalTokenVerifier.getHeader());
+        if (token != null) {
+            internalTokenVerifier.verify(token, Instant.now()).ifPresent(authentication -> {
+                SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+                context.setAuthentication(authentication);
+                securityContextHolderStrategy.setContext(context);
+            });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
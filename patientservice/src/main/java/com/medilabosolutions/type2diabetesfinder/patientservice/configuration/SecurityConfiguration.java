@@ -2,6 +2,9 @@ package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -12,6 +15,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +26,9 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class SecurityConfiguration {
 
+    private final InternalTokenVerifier internalTokenVerifier;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -34,7 +41,19 @@ public class SecurityConfiguration {
                 .password(passwordEncoder().encode("user"))
                 .authorities("USER")
                 .build();
-        return new InMemoryUserDetailsManager(user);
+        return new CredentialCacheInvalidatingUserDetailsManager(new InMemoryUserDetailsManager(user), verifiedCredentialCache);
+    }
+
+    /**
+     * HTTP Basic credentials are matched against their BCrypt hash once per ttl, not on every stateless request
+     *
+     * @return the authentication manager of HTTP Basic
+     */
+    @Bean
+    public AuthenticationManager authenticationManager() {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService());
+        return new ProviderManager(new CachingAuthenticationProvider(daoAuthenticationProvider, verifiedCredentialCache));
     }
 
     @Bean
@@ -47,6 +66,8 @@ public class SecurityConfiguration {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                .authenticationManager(authenticationManager())
+                .addFilterBefore(new InternalTokenAuthenticationFilter(internalTokenVerifier), BasicAuthenticationFilter.class)
                 .httpBasic(httpBasic -> {})
                 .build();
     }
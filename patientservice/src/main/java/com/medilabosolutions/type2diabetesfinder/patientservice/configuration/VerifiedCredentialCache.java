@@ -0,0 +1,103 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Bounded cache of the successful HTTP Basic verifications, expiring ttl after the verification.
+ * <p>
+ * An entry is keyed by the HmacSHA256 of the username and password under a random key drawn at startup:
+ * neither the password nor an offline-searchable hash of it is kept.
+ * Its hits and misses are published as the cache.gets metrics of the cache "verifiedCredentials",
+ * and its hit ratio as the gauge cache.hit.ratio.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String CACHE_NAME = "verifiedCredentials";
+
+    private final Cache<String, Authentication> verifications;
+    // a Mac is not thread safe
+    private final ThreadLocal<Mac> macs;
+
+    public VerifiedCredentialCache(CredentialCacheProperties credentialCacheProperties, MeterRegistry meterRegistry) {
+        verifications = Caffeine.newBuilder()
+                .maximumSize(credentialCacheProperties.getMaxSize())
+                .expireAfterWrite(credentialCacheProperties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifications, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", verifications, cache -> cache.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * @param username the username received
+     * @param password the password received
+     * @return the key of the verification of these credentials
+     */
+    public String keyOf(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param key the key of the credentials
+     * @return the authentication they were verified to, null if they were not verified within ttl
+     */
+    public Authentication get(String key) {
+        return verifications.getIfPresent(key);
+    }
+
+    /**
+     * @param key            the key of the credentials
+     * @param authentication the authentication they were verified to
+     */
+    public void put(String key, Authentication authentication) {
+        verifications.put(key, authentication);
+    }
+
+    /**
+     * Drops the verifications of a user, whose password, authorities or status changed
+     *
+     * @param username the user
+     */
+    public void invalidate(String username) {
+        verifications.asMap().values().removeIf(authentication -> authentication.getName().equals(username));
+    }
+
+    /**
+     * Drops all verifications
+     */
+    public void invalidateAll() {
+        verifications.invalidateAll();
+    }
+}
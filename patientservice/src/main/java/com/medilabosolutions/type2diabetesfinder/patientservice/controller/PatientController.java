@@ -1,6 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.patientservice.controller;
 
 import com.medilabosolutions.type2diabetesfinder.patientservice.configuration.PatientPerPageProperties;
+import com.medilabosolutions.type2diabetesfinder.patientservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.patientservice.model.Patient;
 import com.medilabosolutions.type2diabetesfinder.patientservice.service.PatientService;
 import com.medilabosolutions.type2diabetesfinder.patientservice.service.RequestService;
@@ -15,6 +16,7 @@ import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.HttpStatus;
@@ -45,21 +47,34 @@ public class PatientController {
      * Retrieves a list of all patients with pagination.
      *
      * @param pageNumberOpt optional page number for pagination
+     * @param cursorOpt optional id of the last patient already read, to get the following ones without counting them
      * @param request the current web request
-     * @return a ResponseEntity containing a Page of Patient objects and an HTTP status code
+     * @return a ResponseEntity containing a PageEnvelope of Patient objects and an HTTP status code
      */
     @GetMapping("/patients")
-    public ResponseEntity<Page<Patient>> getPatients(@RequestParam(name = "pageNumber") Optional<String> pageNumberOpt, WebRequest request) throws IllegalArgumentException {
+    public ResponseEntity<PageEnvelope<Patient>> getPatients(@RequestParam(name = "pageNumber") Optional<String> pageNumberOpt, @RequestParam(name = "cursor") Optional<String> cursorOpt, WebRequest request) throws IllegalArgumentException {
         int index = Integer.parseInt(pageNumberOpt.orElseGet(() -> "0"));
         //Throws IllegalArgumentException if index < 0
         Pageable pageRequest = PageRequest.of(index, patientPerPageProperties.getPatientPerPage(), Sort.by(Sort.Direction.ASC, "id"));
+        if (cursorOpt.isPresent()) {
+            //Throws NumberFormatException (an IllegalArgumentException) if cursor is not an id
+            Slice<Patient> patients = patientService.getPatientsAfter(Integer.parseInt(cursorOpt.get()), pageRequest);
+            log.info("{} : {} : patients after id {} : {}",
+                    requestService.requestToString(request),
+                    ((ServletWebRequest) request).getHttpMethod(),
+                    cursorOpt.get(),
+                    patients.getNumberOfElements());
+            PageEnvelope<Patient> envelope = PageEnvelope.of(patients, Patient::getId);
+            envelope.setNumber(index);
+            return new ResponseEntity<>(envelope, HttpStatus.OK);
+        }
         Page<Patient> patients = patientService.getPatients(pageRequest);
         log.info("{} : {} : patients page number : {} of {}",
                 requestService.requestToString(request),
                 ((ServletWebRequest) request).getHttpMethod(),
                 patients.getNumber() + 1,
                 patients.getTotalPages());
-        return new ResponseEntity<>(patients, HttpStatus.OK);
+        return new ResponseEntity<>(PageEnvelope.of(patients, Patient::getId), HttpStatus.OK);
     }
 
     /**
@@ -0,0 +1,53 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compact wire format of a page, instead of a serialized PageImpl and its pageable and sort metadata.
+ * <p>
+ * totalElements is only sent for an offset page, cursor only when there is a next page :
+ * it is the key of the last element, to ask the following page with ?cursor= without counting nor skipping rows.
+ *
+ * @param <T> the type of the elements
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageEnvelope<T> {
+    private List<T> content;
+    private int number;
+    private int size;
+    private Long totalElements;
+    private boolean hasNext;
+    private String cursor;
+
+    /**
+     * @param slice    a Page, with its total, or a Slice read by cursor
+     * @param cursorOf the key of an element
+     * @return the envelope of the slice
+     */
+    public static <T> PageEnvelope<T> of(Slice<T> slice, Function<T, ?> cursorOf) {
+        List<T> content = slice.getContent();
+        return PageEnvelope.<T>builder()
+                .content(content)
+                .number(slice.getNumber())
+                .size(slice.getSize())
+                .totalElements(slice instanceof Page<T> page ? page.getTotalElements() : null)
+                .hasNext(slice.hasNext())
+                .cursor(slice.hasNext() && !content.isEmpty() ? String.valueOf(cursorOf.apply(content.get(content.size() - 1))) : null)
+                .build();
+    }
+}
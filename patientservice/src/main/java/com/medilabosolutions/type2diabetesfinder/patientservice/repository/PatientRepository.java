@@ -1,6 +1,8 @@
 package com.medilabosolutions.type2diabetesfinder.patientservice.repository;
 
 import com.medilabosolutions.type2diabetesfinder.patientservice.model.Patient;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
@@ -10,4 +12,12 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  */
 public interface PatientRepository extends JpaRepository<Patient, Integer>, JpaSpecificationExecutor<Patient> {
 
+    /**
+     * Keyset pagination : the patients following the given id, without count query.
+     *
+     * @param id       the id of the last patient already read
+     * @param pageable the size and sort of the slice
+     * @return the next slice of patients
+     */
+    Slice<Patient> findByIdGreaterThan(Integer id, Pageable pageable);
 }
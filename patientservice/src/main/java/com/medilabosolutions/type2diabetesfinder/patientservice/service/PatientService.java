@@ -5,6 +5,7 @@ import org.apache.coyote.BadRequestException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 
 /**
@@ -21,6 +22,16 @@ public interface PatientService {
      */
     Page<Patient> getPatients(Pageable pageRequest) throws NullPointerException;
 
+    /**
+     * Retrieves the patients following a given id, without counting nor skipping the previous ones.
+     *
+     * @param id          the id of the last patient already read
+     * @param pageRequest the size and sorting information, its page number is ignored
+     * @return a slice of patients
+     * @throws NullPointerException if pageRequest is null
+     */
+    Slice<Patient> getPatientsAfter(Integer id, Pageable pageRequest) throws NullPointerException;
+
     /**
      * Retrieves a patient by their unique identifier.
      *
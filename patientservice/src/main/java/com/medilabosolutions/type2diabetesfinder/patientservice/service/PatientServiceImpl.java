@@ -7,7 +7,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.BadRequestException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
@@ -35,6 +37,20 @@ public class PatientServiceImpl implements PatientService {
         return patientRepository.findAll(pageRequest);
     }
 
+    /**
+     * Retrieves the patients following a given id.
+     *
+     * @param id          the id of the last patient already read
+     * @param pageRequest the size and sorting information
+     * @return a slice of patients
+     * @throws NullPointerException if pageRequest is null
+     */
+    @Override
+    public Slice<Patient> getPatientsAfter(Integer id, Pageable pageRequest) throws NullPointerException {
+        //throws NullPointerException if pageRequest is null
+        return patientRepository.findByIdGreaterThan(id, PageRequest.of(0, pageRequest.getPageSize(), pageRequest.getSort()));
+    }
+
     /**
      * Retrieves a patient by their unique identifier.
      *
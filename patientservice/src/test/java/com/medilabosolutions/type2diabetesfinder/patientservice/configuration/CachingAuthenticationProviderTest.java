@@ -0,0 +1,146 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reuse of the verified HTTP Basic credentials and its invalidation.
+ */
+public class CachingAuthenticationProviderTest {
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedCredentialCache verifiedCredentialCache;
+    private CredentialCacheInvalidatingUserDetailsManager userDetailsManager;
+    private AtomicInteger bcryptChecks;
+    private CachingAuthenticationProvider cachingAuthenticationProvider;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedCredentialCache = new VerifiedCredentialCache(new CredentialCacheProperties(), meterRegistry);
+        userDetailsManager = new CredentialCacheInvalidatingUserDetailsManager(
+                new InMemoryUserDetailsManager(User.withUsername("user").password(passwordEncoder.encode("user")).authorities("USER").build()),
+                verifiedCredentialCache);
+        bcryptChecks = new AtomicInteger();
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return passwordEncoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                bcryptChecks.incrementAndGet();
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            }
+        });
+        daoAuthenticationProvider.setUserDetailsService(userDetailsManager);
+        cachingAuthenticationProvider = new CachingAuthenticationProvider(daoAuthenticationProvider, verifiedCredentialCache);
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        meterRegistry = null;
+        verifiedCredentialCache = null;
+        userDetailsManager = null;
+        bcryptChecks = null;
+        cachingAuthenticationProvider = null;
+    }
+
+    @Test
+    @Tag("CachingAuthenticationProviderTest")
+    @DisplayName("authenticate twice the same credentials should check BCrypt once")
+    public void authenticateTwiceShouldCheckBCryptOnce() {
+
+        //GIVEN
+        //WHEN
+        Authentication first = cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user"));
+        Authentication second = cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user"));
+
+        //THEN
+        assertThat(bcryptChecks.get()).isEqualTo(1);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("user");
+        assertThat(second.getCredentials()).isNull();
+        assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+    }
+
+    @Test
+    @Tag("CachingAuthenticationProviderTest")
+    @DisplayName("authenticate with a wrong password should never be cached")
+    public void authenticateWithWrongPasswordShouldNeverBeCached() {
+
+        //GIVEN
+        cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user"));
+
+        //WHEN
+        //THEN
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(bcryptChecks.get()).isEqualTo(3);
+    }
+
+    @Test
+    @Tag("CachingAuthenticationProviderTest")
+    @DisplayName("updating the user should drop its verified credentials")
+    public void updateUserShouldDropItsVerifiedCredentials() {
+
+        //GIVEN
+        cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user"));
+
+        //WHEN
+        userDetailsManager.updateUser(User.withUsername("user").password(passwordEncoder.encode("changed")).authorities("USER").build());
+
+        //THEN
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "changed")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    @Tag("CachingAuthenticationProviderTest")
+    @DisplayName("the cache key should not contain the password")
+    public void keyShouldNotContainThePassword() {
+
+        //GIVEN
+        //WHEN
+        String key = verifiedCredentialCache.keyOf("user", "user");
+
+        //THEN
+        assertThat(key).doesNotContain("user").isEqualTo(verifiedCredentialCache.keyOf("user", "user"));
+        assertThat(verifiedCredentialCache.keyOf("user", "other")).isNotEqualTo(key);
+    }
+
+    @Test
+    @Tag("CachingAuthenticationProviderTest")
+    @DisplayName("hits and misses should be published as metrics")
+    public void hitsAndMissesShouldBePublished() {
+
+        //GIVEN
+        //WHEN
+        cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user"));
+        cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "user"));
+
+        //THEN
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verifiedCredentials").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verifiedCredentials").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "verifiedCredentials").gauge().value()).isEqualTo(0.5);
+    }
+}
@@ -0,0 +1,86 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the internal token check against the BCrypt check of HTTP Basic it replaces.
+ * <p>
+ * A measure run in the integration-test phase, the behavior of the check is tested by InternalTokenVerifierTest.
+ */
+@Slf4j
+public class InternalTokenVerifierIT {
+
+    private static final String SECRET = "internal-token-test-secret";
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    private InternalTokenVerifier internalTokenVerifier;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        InternalTokenProperties internalTokenProperties = new InternalTokenProperties();
+        internalTokenProperties.setSecret(SECRET);
+        internalTokenVerifier = new InternalTokenVerifier(internalTokenProperties);
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        internalTokenVerifier = null;
+    }
+
+    /**
+     * Signs a token as the gateway does
+     */
+    @SneakyThrows
+    private static String sign(String secret, String payload) {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String encodedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    @Tag("InternalTokenVerifierIT")
+    @DisplayName("token check throughput should be orders of magnitude above BCrypt")
+    public void tokenCheckThroughputShouldBeOrdersOfMagnitudeAboveBCrypt() {
+
+        //GIVEN
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        String encodedPassword = passwordEncoder.encode("user");
+        String token = sign(SECRET, "user\nUSER\n" + NOW.plusSeconds(30).getEpochSecond());
+        int bcryptRounds = 20;
+        int tokenRounds = 200_000;
+        for (int i = 0; i < 2_000; i++) {
+            internalTokenVerifier.verify(token, NOW);
+        }
+        passwordEncoder.matches("user", encodedPassword);
+
+        //WHEN
+        long start = System.nanoTime();
+        for (int i = 0; i < bcryptRounds; i++) {
+            assertThat(passwordEncoder.matches("user", encodedPassword)).isTrue();
+        }
+        double bcryptPerSecond = bcryptRounds * 1e9 / (System.nanoTime() - start);
+        start = System.nanoTime();
+        for (int i = 0; i < tokenRounds; i++) {
+            assertThat(internalTokenVerifier.verify(token, NOW)).isPresent();
+        }
+        double tokenPerSecond = tokenRounds * 1e9 / (System.nanoTime() - start);
+
+        //THEN
+        log.info("Checks per second on one thread : BCrypt {} - internal token {} ({}x)",
+                Math.round(bcryptPerSecond), Math.round(tokenPerSecond), Math.round(tokenPerSecond / bcryptPerSecond));
+        assertThat(tokenPerSecond).isGreaterThan(100 * bcryptPerSecond);
+    }
+}
@@ -0,0 +1,141 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.configuration;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Internal token check, and the filter putting its user in the security context.
+ */
+public class InternalTokenVerifierTest {
+
+    private static final String SECRET = "internal-token-test-secret";
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    private InternalTokenVerifier internalTokenVerifier;
+
+    @BeforeEach
+    public void setUpForEachTest() {
+        InternalTokenProperties internalTokenProperties = new InternalTokenProperties();
+        internalTokenProperties.setSecret(SECRET);
+        internalTokenVerifier = new InternalTokenVerifier(internalTokenProperties);
+    }
+
+    @AfterEach
+    public void unSetForEachTest() {
+        internalTokenVerifier = null;
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Signs a token as the gateway does
+     */
+    @SneakyThrows
+    private static String sign(String secret, String payload) {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String encodedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Nested
+    @Tag("verifyTests")
+    @DisplayName("Tests for verify")
+    class VerifyTests {
+
+        @Test
+        @Tag("InternalTokenVerifierTest")
+        @DisplayName("verify should authenticate the user of a valid token")
+        public void verifyShouldAuthenticateTheUserOfAValidToken() {
+            //GIVEN
+            String token = sign(SECRET, "user\nUSER,ADMIN\n" + NOW.plusSeconds(30).getEpochSecond());
+            //WHEN
+            Authentication authentication = internalTokenVerifier.verify(token, NOW).orElseThrow();
+            //THEN
+            assertThat(authentication.isAuthenticated()).isTrue();
+            assertThat(authentication.getName()).isEqualTo("user");
+            assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities())).containsExactlyInAnyOrder("USER", "ADMIN");
+        }
+
+        @Test
+        @Tag("InternalTokenVerifierTest")
+        @DisplayName("verify should reject an expired, forged, tampered or malformed token")
+        public void verifyShouldRejectAnExpiredForgedTamperedOrMalformedToken() {
+            //GIVEN
+            String expired = sign(SECRET, "user\nUSER\n" + NOW.getEpochSecond());
+            String forged = sign("another-secret", "user\nUSER\n" + NOW.plusSeconds(30).getEpochSecond());
+            String valid = sign(SECRET, "user\nUSER\n" + NOW.plusSeconds(30).getEpochSecond());
+            String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    ("admin\nUSER\n" + NOW.plusSeconds(30).getEpochSecond()).getBytes(StandardCharsets.UTF_8))
+                    + valid.substring(valid.lastIndexOf('.'));
+            //WHEN
+            //THEN
+            assertThat(internalTokenVerifier.verify(expired, NOW)).isEmpty();
+            assertThat(internalTokenVerifier.verify(forged, NOW)).isEmpty();
+            assertThat(internalTokenVerifier.verify(tampered, NOW)).isEmpty();
+            assertThat(internalTokenVerifier.verify("not a token", NOW)).isEmpty();
+            assertThat(internalTokenVerifier.verify("bm90.IGEgdG9rZW4", NOW)).isEmpty();
+        }
+
+        @Test
+        @Tag("InternalTokenVerifierTest")
+        @DisplayName("verify should reject every token without a secret")
+        public void verifyShouldRejectEveryTokenWithoutASecret() {
+            //GIVEN
+            InternalTokenVerifier withoutSecret = new InternalTokenVerifier(new InternalTokenProperties());
+            String token = sign(SECRET, "user\nUSER\n" + NOW.plusSeconds(30).getEpochSecond());
+            //WHEN
+            //THEN
+            assertThat(withoutSecret.verify(token, NOW)).isEmpty();
+        }
+    }
+
+    @Nested
+    @Tag("internalTokenAuthenticationFilterTests")
+    @DisplayName("Tests for InternalTokenAuthenticationFilter")
+    class InternalTokenAuthenticationFilterTests {
+
+        @SneakyThrows
+        @Test
+        @Tag("InternalTokenVerifierTest")
+        @DisplayName("filter should put the user of a valid token in the security context")
+        public void filterShouldPutTheUserOfAValidTokenInTheSecurityContext() {
+            //GIVEN
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patients");
+            request.addHeader("X-Internal-Auth", sign(SECRET, "user\nUSER\n" + Instant.now().plusSeconds(30).getEpochSecond()));
+            //WHEN
+            new InternalTokenAuthenticationFilter(internalTokenVerifier).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            //THEN
+            assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("user");
+        }
+
+        @SneakyThrows
+        @Test
+        @Tag("InternalTokenVerifierTest")
+        @DisplayName("filter should leave the request to HTTP Basic without a valid token")
+        public void filterShouldLeaveTheRequestToHttpBasicWithoutAValidToken() {
+            //GIVEN
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patients");
+            request.addHeader("X-Internal-Auth", sign(SECRET, "user\nUSER\n" + Instant.now().minusSeconds(1).getEpochSecond()));
+            MockFilterChain chain = new MockFilterChain();
+            //WHEN
+            new InternalTokenAuthenticationFilter(internalTokenVerifier).doFilter(request, new MockHttpServletResponse(), chain);
+            //THEN
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+            assertThat(chain.getRequest()).isSameAs(request);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.medilabosolutions.type2diabetesfinder.patientservice.controller;
 
 import com.medilabosolutions.type2diabetesfinder.patientservice.configuration.PatientPerPageProperties;
+import com.medilabosolutions.type2diabetesfinder.patientservice.model.PageEnvelope;
 import com.medilabosolutions.type2diabetesfinder.patientservice.model.Patient;
 import com.medilabosolutions.type2diabetesfinder.patientservice.service.PatientService;
 import com.medilabosolutions.type2diabetesfinder.patientservice.service.RequestService;
@@ -15,9 +16,10 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -143,7 +145,7 @@ public class PatientControllerTest {
             when(patientService.getPatients(any(Pageable.class))).thenReturn(new PageImpl<Patient>(givenPatients, pageRequest, 4));
 
             //WHEN
-            ResponseEntity<Page<Patient>> responseEntity = patientController.getPatients(Optional.of("3"), request);
+            ResponseEntity<PageEnvelope<Patient>> responseEntity = patientController.getPatients(Optional.of("3"), Optional.empty(), request);
 
             //THEN
             assertThat(responseEntity.getStatusCode().is2xxSuccessful()).isTrue();
@@ -165,6 +167,31 @@ public class PatientControllerTest {
                             tuple(4, "Test", "TestEarlyOnset", "20020628", "F", "4 Valley Dr", "400-555-6666"));
         }
 
+        @Test
+        @Tag("PatientControllerTest")
+        @DisplayName("test getPatients with cursor should return the following patients and the next cursor")
+        public void getPatientsTestWithCursorShouldReturnTheFollowingPatientsAndTheNextCursor() {
+
+            //GIVEN
+            List<Patient> givenPatients = List.of(
+                    Patient.builder().id(5).firstName("Test").lastName("TestNone").build(),
+                    Patient.builder().id(7).firstName("Test").lastName("TestBorderline").build());
+            when(patientPerPageProperties.getPatientPerPage()).thenReturn(2);
+            when(patientService.getPatientsAfter(eq(4), any(Pageable.class))).thenReturn(new SliceImpl<>(givenPatients, PageRequest.of(0, 2), true));
+
+            //WHEN
+            ResponseEntity<PageEnvelope<Patient>> responseEntity = patientController.getPatients(Optional.of("2"), Optional.of("4"), request);
+
+            //THEN
+            assertThat(responseEntity.getStatusCode().is2xxSuccessful()).isTrue();
+            PageEnvelope<Patient> envelope = responseEntity.getBody();
+            assertThat(envelope.getContent()).extracting(Patient::getId).containsExactly(5, 7);
+            assertThat(envelope.getNumber()).isEqualTo(2);
+            assertThat(envelope.getTotalElements()).isNull();
+            assertThat(envelope.isHasNext()).isTrue();
+            assertThat(envelope.getCursor()).isEqualTo("7");
+        }
+
         @Test
         @Tag("PatientControllerTest")
         @DisplayName("test getPatients should throw IllegalArgumentException")
@@ -174,7 +201,7 @@ public class PatientControllerTest {
             //WHEN
             //THEN
             assertThat(assertThrows(IllegalArgumentException.class,
-                    () -> patientController.getPatients(Optional.ofNullable("-1"), request))
+                    () -> patientController.getPatients(Optional.ofNullable("-1"), Optional.empty(), request))
                     .getMessage()).isEqualTo("Page index must not be less than zero");
         }
     }
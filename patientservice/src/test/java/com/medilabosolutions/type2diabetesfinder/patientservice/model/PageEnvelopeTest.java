@@ -0,0 +1,103 @@
+package com.medilabosolutions.type2diabetesfinder.patientservice.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Wire size and Jackson time of a page of patients : PageImpl as it was serialized before, against PageEnvelope.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PageEnvelopeTest {
+
+    private static final int ROUNDS = 2_000;
+
+    private ObjectMapper objectMapper;
+    private Page<Patient> page;
+
+    @BeforeAll
+    public void setUpForAllTests() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<Patient> patients = IntStream.rangeClosed(1, 10)
+                .mapToObj(i -> Patient.builder()
+                        .id(i)
+                        .firstName("Test")
+                        .lastName("TestNone" + i)
+                        .birthDate(LocalDate.of(1966, 12, 31))
+                        .genre("F")
+                        .address(i + " Brookside St")
+                        .phoneNumber("100-222-3333")
+                        .build())
+                .toList();
+        page = new PageImpl<>(patients, PageRequest.of(1, 10, Sort.by(Sort.Direction.ASC, "id")), 42);
+    }
+
+    @AfterAll
+    public void undefForAllTests() {
+        objectMapper = null;
+        page = null;
+    }
+
+    @SneakyThrows
+    @Test
+    @Tag("PageEnvelopeTest")
+    @DisplayName("PageEnvelope should keep the page and drop the pageable and sort metadata")
+    public void pageEnvelopeShouldKeepThePageAndDropTheMetadata() {
+
+        //GIVEN
+        PageEnvelope<Patient> envelope = PageEnvelope.of(page, Patient::getId);
+
+        //WHEN
+        String json = objectMapper.writeValueAsString(envelope);
+
+        //THEN
+        assertThat(json).contains("\"number\":1", "\"size\":10", "\"totalElements\":42", "\"hasNext\":true", "\"cursor\":\"10\"")
+                .doesNotContain("pageable", "sort");
+    }
+
+    @SneakyThrows
+    @Test
+    @Tag("PageEnvelopeTest")
+    @DisplayName("PageEnvelope should be smaller and faster to write than PageImpl")
+    public void pageEnvelopeShouldBeSmallerAndFasterToWriteThanPageImpl() {
+
+        //GIVEN
+        PageEnvelope<Patient> envelope = PageEnvelope.of(page, Patient::getId);
+        int pageImplBytes = objectMapper.writeValueAsBytes(page).length;
+        int envelopeBytes = objectMapper.writeValueAsBytes(envelope).length;
+
+        //WHEN
+        long pageImplNanos = writeNanos(page);
+        long envelopeNanos = writeNanos(envelope);
+
+        //THEN
+        log.info("Page of 10 patients : PageImpl {} bytes {} us, PageEnvelope {} bytes {} us",
+                pageImplBytes, pageImplNanos / ROUNDS / 1_000.0, envelopeBytes, envelopeNanos / ROUNDS / 1_000.0);
+        assertThat(envelopeBytes).isLessThan(pageImplBytes);
+    }
+
+    @SneakyThrows
+    private long writeNanos(Object value) {
+        // warm up
+        for (int i = 0; i < ROUNDS; i++) {
+            objectMapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            objectMapper.writeValueAsBytes(value);
+        }
+        return System.nanoTime() - start;
+    }
+}